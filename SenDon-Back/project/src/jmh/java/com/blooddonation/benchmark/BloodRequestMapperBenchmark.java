@@ -0,0 +1,53 @@
+package com.blooddonation.benchmark;
+
+import com.blooddonation.dto.BloodRequestResponseDto;
+import com.blooddonation.entity.BloodRequest;
+import com.blooddonation.mapper.BloodRequestMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de BloodRequestMapper.toResponseDto : les compteurs de réponses sont lus sur la demande,
+ * sans parcourir la collection des réponses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BloodRequestMapperBenchmark {
+    
+    private final BloodRequestMapper mapper = new BloodRequestMapper();
+    
+    private BloodRequest request;
+    
+    private BloodRequestResponseDto dto;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        request = SyntheticData.bloodRequest(1L, 42);
+        dto = mapper.toResponseDto(request);
+    }
+    
+    @Benchmark
+    public BloodRequestResponseDto toResponseDto() {
+        return mapper.toResponseDto(request);
+    }
+    
+    @Benchmark
+    public BloodRequestResponseDto withDistance() {
+        return mapper.withDistance(dto, 12.345);
+    }
+}
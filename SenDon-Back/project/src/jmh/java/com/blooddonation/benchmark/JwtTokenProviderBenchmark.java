@@ -0,0 +1,75 @@
+package com.blooddonation.benchmark;
+
+import com.blooddonation.enums.UserRole;
+import com.blooddonation.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Génération et validation des tokens JWT, exécutées à chaque requête authentifiée.
+ * legacyValidateThenParse reproduit l'ancien filtre : clé et parseur reconstruits, signature vérifiée deux fois.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+    
+    private JwtTokenProvider tokenProvider;
+    
+    private String token;
+    
+    private String jwtSecret;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtSecret = "12345678901234567890123456789012";
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", jwtSecret);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 86400000);
+        tokenProvider.init();
+        token = tokenProvider.generateToken(1L, "donneur@example.com", UserRole.USER);
+    }
+    
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken(1L, "donneur@example.com", UserRole.USER);
+    }
+    
+    @Benchmark
+    public Optional<Claims> parseAndValidate() {
+        return tokenProvider.parseAndValidate(token);
+    }
+    
+    @Benchmark
+    public String legacyValidateThenParse() {
+        Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
+                .build()
+                .parseClaimsJws(token);
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+}
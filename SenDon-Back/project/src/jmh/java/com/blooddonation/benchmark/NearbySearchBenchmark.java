@@ -0,0 +1,92 @@
+package com.blooddonation.benchmark;
+
+import com.blooddonation.dto.BloodRequestResponseDto;
+import com.blooddonation.enums.BloodType;
+import com.blooddonation.service.ActiveBloodRequestIndex;
+import com.blooddonation.util.FeedCursor;
+import com.blooddonation.util.GeoUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche des demandes proches : parcours complet (équivalent en mémoire de
+ * findNearbyActiveRequests, qui évalue la distance pour chaque demande active du groupe)
+ * comparé à l'index par cellules ActiveBloodRequestIndex.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class NearbySearchBenchmark {
+    
+    private static final BloodType BLOOD_TYPE = BloodType.O_POSITIVE;
+    
+    @Param({"10000", "100000", "1000000"})
+    private int requestCount;
+    
+    private List<BloodRequestResponseDto> requests;
+    
+    private ActiveBloodRequestIndex index;
+    
+    private double[][] positions;
+    
+    private int next;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        requests = SyntheticData.activeRequests(requestCount, 42);
+        // Hors transaction, les écritures de l'index sont appliquées immédiatement
+        index = new ActiveBloodRequestIndex();
+        requests.forEach(index::put);
+        positions = SyntheticData.positions(1024, 7);
+    }
+    
+    @Benchmark
+    public List<BloodRequestResponseDto> fullScan() {
+        double[] position = nextPosition();
+        List<BloodRequestResponseDto> matches = new ArrayList<>();
+        for (BloodRequestResponseDto request : requests) {
+            if (request.getBloodType() == BLOOD_TYPE
+                    && GeoUtils.distanceKm(position[0], position[1], request.getLatitude(), request.getLongitude())
+                    <= request.getSearchRadiusKm()) {
+                matches.add(request);
+            }
+        }
+        matches.sort(FeedCursor.ORDER);
+        return matches;
+    }
+    
+    @Benchmark
+    public List<BloodRequestResponseDto> cellIndex() {
+        double[] position = nextPosition();
+        return index.findNearby(position[0], position[1], BLOOD_TYPE);
+    }
+    
+    @Benchmark
+    public List<Integer> cellsWithin() {
+        double[] position = nextPosition();
+        return GeoUtils.cellsWithin(position[0], position[1], GeoUtils.MAX_SEARCH_RADIUS_KM);
+    }
+    
+    private double[] nextPosition() {
+        double[] position = positions[next];
+        next = (next + 1) & (positions.length - 1);
+        return position;
+    }
+}
@@ -0,0 +1,128 @@
+package com.blooddonation.benchmark;
+
+import com.blooddonation.dto.BloodRequestResponseDto;
+import com.blooddonation.entity.BloodRequest;
+import com.blooddonation.entity.Contact;
+import com.blooddonation.entity.User;
+import com.blooddonation.enums.BloodType;
+import com.blooddonation.enums.RequestStatus;
+import com.blooddonation.enums.UrgencyLevel;
+import com.blooddonation.enums.UserRole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Jeux de données synthétiques reproductibles (graine fixe) pour les benchmarks.
+ * Les positions sont tirées dans un rectangle couvrant le Sénégal pour simuler une forte densité.
+ */
+final class SyntheticData {
+    
+    static final double MIN_LATITUDE = 12.3;
+    static final double MAX_LATITUDE = 16.7;
+    static final double MIN_LONGITUDE = -17.5;
+    static final double MAX_LONGITUDE = -11.4;
+    
+    private static final BloodType[] BLOOD_TYPES = BloodType.values();
+    private static final UrgencyLevel[] URGENCY_LEVELS = UrgencyLevel.values();
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(2024, 1, 1, 0, 0);
+    
+    private SyntheticData() {}
+    
+    static List<BloodRequestResponseDto> activeRequests(int count, long seed) {
+        Random random = new Random(seed);
+        List<BloodRequestResponseDto> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BloodRequestResponseDto dto = new BloodRequestResponseDto();
+            dto.setId((long) i + 1);
+            dto.setBloodType(BLOOD_TYPES[random.nextInt(BLOOD_TYPES.length)]);
+            dto.setUrgencyLevel(URGENCY_LEVELS[random.nextInt(URGENCY_LEVELS.length)]);
+            dto.setStatus(RequestStatus.ACTIVE);
+            dto.setLatitude(between(random, MIN_LATITUDE, MAX_LATITUDE));
+            dto.setLongitude(between(random, MIN_LONGITUDE, MAX_LONGITUDE));
+            dto.setSearchRadiusKm(5 + random.nextInt(96));
+            dto.setCreatedAt(ORIGIN.plusSeconds(random.nextInt(30 * 24 * 3600)));
+            dto.setHospitalName("Hôpital " + (i % 500));
+            requests.add(dto);
+        }
+        return requests;
+    }
+    
+    static double[][] positions(int count, long seed) {
+        Random random = new Random(seed);
+        double[][] positions = new double[count][];
+        for (int i = 0; i < count; i++) {
+            positions[i] = new double[] {
+                    between(random, MIN_LATITUDE, MAX_LATITUDE),
+                    between(random, MIN_LONGITUDE, MAX_LONGITUDE)
+            };
+        }
+        return positions;
+    }
+    
+    static BloodRequest bloodRequest(long id, long seed) {
+        Random random = new Random(seed);
+        User hospital = new User();
+        hospital.setId(1L);
+        hospital.setFirstName("Hôpital");
+        hospital.setLastName("Principal");
+        
+        BloodRequest request = new BloodRequest(BLOOD_TYPES[random.nextInt(BLOOD_TYPES.length)],
+                BigDecimal.valueOf(450), URGENCY_LEVELS[random.nextInt(URGENCY_LEVELS.length)],
+                "Demande synthétique", between(random, MIN_LATITUDE, MAX_LATITUDE),
+                between(random, MIN_LONGITUDE, MAX_LONGITUDE), 50, "Avenue Cheikh Anta Diop",
+                "Hôpital Principal", "+221000000000", ORIGIN.plusDays(7), hospital);
+        request.setId(id);
+        request.setCreatedAt(ORIGIN);
+        request.setUpdatedAt(ORIGIN);
+        return request;
+    }
+    
+    static User donor(long id, long seed) {
+        Random random = new Random(seed);
+        User user = new User();
+        user.setId(id);
+        user.setFirstName("Donneur");
+        user.setLastName("Synthétique " + id);
+        user.setEmail("donneur" + id + "@example.com");
+        user.setPassword("$2a$10$synthetique");
+        user.setPhoneNumber("+221770000000");
+        user.setBirthDate(LocalDate.of(1990, 1, 1).plusDays(random.nextInt(5000)));
+        user.setBloodType(BLOOD_TYPES[random.nextInt(BLOOD_TYPES.length)]);
+        user.setRole(UserRole.USER);
+        user.setAddress("Rue " + id);
+        user.setCity("Dakar");
+        user.setPostalCode("10200");
+        user.setLatitude(between(random, MIN_LATITUDE, MAX_LATITUDE));
+        user.setLongitude(between(random, MIN_LONGITUDE, MAX_LONGITUDE));
+        user.setCreatedAt(ORIGIN);
+        user.setUpdatedAt(ORIGIN);
+        return user;
+    }
+    
+    static Contact contact(long id, User user, long seed) {
+        Random random = new Random(seed);
+        Contact contact = new Contact();
+        contact.setId(id);
+        contact.setFirstName("Contact");
+        contact.setLastName("Synthétique " + id);
+        contact.setEmail("contact" + id + "@example.com");
+        contact.setPhoneNumber("+221780000000");
+        contact.setBirthDate(LocalDate.of(1985, 1, 1).plusDays(random.nextInt(5000)));
+        contact.setBloodType(BLOOD_TYPES[random.nextInt(BLOOD_TYPES.length)]);
+        contact.setRelationship("famille");
+        contact.setCity("Thiès");
+        contact.setUser(user);
+        contact.setCreatedAt(ORIGIN);
+        contact.setUpdatedAt(ORIGIN);
+        return contact;
+    }
+    
+    private static double between(Random random, double min, double max) {
+        return min + random.nextDouble() * (max - min);
+    }
+}
@@ -0,0 +1,82 @@
+package com.blooddonation.benchmark;
+
+import com.blooddonation.dto.ContactResponseDto;
+import com.blooddonation.dto.UserResponseDto;
+import com.blooddonation.entity.Contact;
+import com.blooddonation.entity.User;
+import com.blooddonation.mapper.ContactMapper;
+import com.blooddonation.mapper.UserMapper;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût par ligne du mapping des utilisateurs et des contacts : mappers écrits à la main
+ * comparés à ModelMapper configuré comme l'était l'application (STRICT, accès aux champs privés).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+    
+    private final UserMapper userMapper = new UserMapper();
+    
+    private final ContactMapper contactMapper = new ContactMapper();
+    
+    private ModelMapper modelMapper;
+    
+    private User user;
+    
+    private Contact contact;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration()
+                .setMatchingStrategy(MatchingStrategies.STRICT)
+                .setFieldMatchingEnabled(true)
+                .setFieldAccessLevel(org.modelmapper.config.Configuration.AccessLevel.PRIVATE);
+        
+        user = SyntheticData.donor(1L, 42);
+        contact = SyntheticData.contact(1L, user, 42);
+        
+        // Premier appel hors mesure : ModelMapper construit et met en cache le TypeMap à ce moment-là
+        modelMapper.map(user, UserResponseDto.class);
+        modelMapper.map(contact, ContactResponseDto.class);
+    }
+    
+    @Benchmark
+    public UserResponseDto userMapper() {
+        return userMapper.toResponseDto(user);
+    }
+    
+    @Benchmark
+    public UserResponseDto userModelMapper() {
+        return modelMapper.map(user, UserResponseDto.class);
+    }
+    
+    @Benchmark
+    public ContactResponseDto contactMapper() {
+        return contactMapper.toResponseDto(contact);
+    }
+    
+    @Benchmark
+    public ContactResponseDto contactModelMapper() {
+        return modelMapper.map(contact, ContactResponseDto.class);
+    }
+}
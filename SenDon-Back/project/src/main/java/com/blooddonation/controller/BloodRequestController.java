@@ -1,15 +1,33 @@
 package com.blooddonation.controller;
 
+import com.blooddonation.dto.BloodRequestBatchItemDto;
+import com.blooddonation.dto.BloodRequestChangesDto;
 import com.blooddonation.dto.BloodRequestDto;
 import com.blooddonation.dto.BloodRequestResponseDto;
+import com.blooddonation.dto.CursorPageDto;
+import com.blooddonation.dto.DonorMatchDto;
+import com.blooddonation.dto.NearbyIndexConsistencyDto;
+import com.blooddonation.dto.PageResponseDto;
+import com.blooddonation.enums.ExportFormat;
+import com.blooddonation.projection.BloodRequestVersion;
+import com.blooddonation.service.ActiveFeedCache;
+import com.blooddonation.service.ActiveRequestStreamService;
 import com.blooddonation.service.BloodRequestService;
+import com.blooddonation.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -17,9 +35,21 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class BloodRequestController {
     
+    // Le client garde la réponse mais la revalide à chaque appel (If-None-Match / If-Modified-Since)
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    
     @Autowired
     private BloodRequestService bloodRequestService;
     
+    @Autowired
+    private ExportService exportService;
+    
+    @Autowired
+    private ActiveFeedCache activeFeedCache;
+    
+    @Autowired
+    private ActiveRequestStreamService activeRequestStreamService;
+    
     // Endpoints pour les hôpitaux/admins
     @PostMapping("/hospital/{hospitalUserId}")
     @PreAuthorize("hasRole('HOSPITAL')")
@@ -30,12 +60,27 @@ public class BloodRequestController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
     
+    // Création de plusieurs demandes en une fois, avec un résultat par demande
+    @PostMapping("/hospital/{hospitalUserId}/batch")
+    @PreAuthorize("hasRole('HOSPITAL')")
+    public ResponseEntity<List<BloodRequestBatchItemDto>> createBloodRequests(
+            @PathVariable Long hospitalUserId,
+            @RequestBody List<BloodRequestDto> requestDtos) {
+        List<BloodRequestBatchItemDto> results = bloodRequestService.createBloodRequests(hospitalUserId, requestDtos);
+        return ResponseEntity.ok(results);
+    }
+    
     @GetMapping("/hospital/{hospitalUserId}")
     @PreAuthorize("hasRole('HOSPITAL')")
     public ResponseEntity<List<BloodRequestResponseDto>> getBloodRequestsByHospitalUser(
-            @PathVariable Long hospitalUserId) {
+            @PathVariable Long hospitalUserId,
+            WebRequest webRequest) {
+        BloodRequestVersion version = bloodRequestService.getHospitalBloodRequestsVersion(hospitalUserId);
+        if (isNotModified(version, webRequest)) {
+            return notModified();
+        }
         List<BloodRequestResponseDto> requests = bloodRequestService.getBloodRequestsByHospitalUser(hospitalUserId);
-        return ResponseEntity.ok(requests);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(requests);
     }
     
     @GetMapping("/hospital/{hospitalUserId}/active")
@@ -46,11 +91,29 @@ public class BloodRequestController {
         return ResponseEntity.ok(requests);
     }
     
+    // Export en flux de l'historique complet (NDJSON par défaut, ou CSV)
+    @GetMapping("/hospital/{hospitalUserId}/export")
+    @PreAuthorize("hasRole('HOSPITAL')")
+    public void exportBloodRequests(
+            @PathVariable Long hospitalUserId,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            HttpServletResponse response) throws IOException {
+        exportService.checkHospitalUser(hospitalUserId);
+        response.setContentType(format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"demandes-" + hospitalUserId + "." + format.getExtension() + "\"");
+        exportService.exportBloodRequests(hospitalUserId, format, response.getOutputStream());
+    }
+    
     @GetMapping("/{requestId}")
     @PreAuthorize("hasRole('USER') or hasRole('HOSPITAL')")
-    public ResponseEntity<BloodRequestResponseDto> getBloodRequestById(@PathVariable Long requestId) {
+    public ResponseEntity<BloodRequestResponseDto> getBloodRequestById(@PathVariable Long requestId, WebRequest webRequest) {
+        BloodRequestVersion version = bloodRequestService.getBloodRequestVersion(requestId);
+        if (isNotModified(version, webRequest)) {
+            return notModified();
+        }
         BloodRequestResponseDto request = bloodRequestService.getBloodRequestById(requestId);
-        return ResponseEntity.ok(request);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(request);
     }
     
     @PutMapping("/{requestId}/hospital/{hospitalUserId}")
@@ -81,11 +144,77 @@ public class BloodRequestController {
         return ResponseEntity.noContent().build();
     }
     
+    @GetMapping("/{requestId}/matching-donors/hospital/{hospitalUserId}")
+    @PreAuthorize("hasRole('HOSPITAL')")
+    public ResponseEntity<List<DonorMatchDto>> getMatchingDonors(
+            @PathVariable Long requestId,
+            @PathVariable Long hospitalUserId,
+            @RequestParam(defaultValue = "50") int limit) {
+        List<DonorMatchDto> donors = bloodRequestService.getMatchingDonors(requestId, hospitalUserId, limit);
+        return ResponseEntity.ok(donors);
+    }
+    
     // Endpoints pour les donneurs - ACCÈS SIMPLIFIÉ
+    // JSON déjà sérialisé, partagé par tous les donneurs jusqu'à la prochaine modification
     @GetMapping("/active")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<List<BloodRequestResponseDto>> getAllActiveBloodRequests() {
-        List<BloodRequestResponseDto> requests = bloodRequestService.getAllActiveBloodRequests();
+    public ResponseEntity<byte[]> getAllActiveBloodRequests(WebRequest webRequest) {
+        ActiveFeedCache.Feed feed = activeFeedCache.getActiveFeed();
+        if (webRequest.checkNotModified(feed.etag())) {
+            return notModified();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(feed.json());
+    }
+    
+    // Flux des demandes actives paginé par curseur
+    @GetMapping("/active/page")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<CursorPageDto<BloodRequestResponseDto>> getActiveBloodRequestsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPageDto<BloodRequestResponseDto> page = bloodRequestService.getActiveBloodRequestsPage(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+    
+    // Flux temps réel (Server-Sent Events) des changements, à la place de l'interrogation répétée de /active
+    @GetMapping(value = "/active/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public SseEmitter streamActiveBloodRequests(
+            @RequestParam(required = false) com.blooddonation.enums.BloodType bloodType,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude) {
+        return activeRequestStreamService.subscribe(bloodType, latitude, longitude);
+    }
+    
+    // Synchronisation différentielle pour les clients sans flux SSE : renvoyer le curseur reçu à l'appel suivant
+    @GetMapping("/changes")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<BloodRequestChangesDto> getBloodRequestChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int size) {
+        BloodRequestChangesDto changes = bloodRequestService.getChangesSince(since, size);
+        return ResponseEntity.ok(changes);
+    }
+    
+    // Demandes actives auxquelles le donneur peut répondre selon son groupe sanguin
+    @GetMapping("/compatible")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<BloodRequestResponseDto>> getCompatibleBloodRequests(
+            @RequestParam com.blooddonation.enums.BloodType bloodType) {
+        List<BloodRequestResponseDto> requests = bloodRequestService.getCompatibleBloodRequests(bloodType);
+        return ResponseEntity.ok(requests);
+    }
+    
+    @GetMapping("/compatible/nearby")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<BloodRequestResponseDto>> getCompatibleNearbyBloodRequests(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam com.blooddonation.enums.BloodType bloodType) {
+        List<BloodRequestResponseDto> requests = bloodRequestService.getCompatibleNearbyBloodRequests(latitude, longitude, bloodType);
         return ResponseEntity.ok(requests);
     }
     
@@ -109,13 +238,37 @@ public class BloodRequestController {
     @GetMapping("/search/nearby")
     @PreAuthorize("hasRole('HOSPITAL')")
     public ResponseEntity<List<BloodRequestResponseDto>> getNearbyBloodRequests(
-            @RequestParam java.math.BigDecimal latitude,
-            @RequestParam java.math.BigDecimal longitude,
+            @RequestParam double latitude,
+            @RequestParam double longitude,
             @RequestParam com.blooddonation.enums.BloodType bloodType) {
         List<BloodRequestResponseDto> requests = bloodRequestService.getNearbyBloodRequests(latitude, longitude, bloodType);
         return ResponseEntity.ok(requests);
     }
     
+    @GetMapping("/search/nearby/page")
+    @PreAuthorize("hasRole('HOSPITAL')")
+    public ResponseEntity<CursorPageDto<BloodRequestResponseDto>> getNearbyBloodRequestsPage(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam com.blooddonation.enums.BloodType bloodType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPageDto<BloodRequestResponseDto> page =
+                bloodRequestService.getNearbyBloodRequestsPage(latitude, longitude, bloodType, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+    
+    // Vérification de l'index en mémoire par rapport à la requête SQL
+    @GetMapping("/search/nearby/consistency")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<NearbyIndexConsistencyDto> checkNearbyIndexConsistency(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam com.blooddonation.enums.BloodType bloodType) {
+        NearbyIndexConsistencyDto result = bloodRequestService.checkNearbyIndexConsistency(latitude, longitude, bloodType);
+        return ResponseEntity.ok(result);
+    }
+    
     // Endpoint pour voir toutes les demandes (pour les hôpitaux/admins)
     @GetMapping("/all")
     @PreAuthorize("hasRole('HOSPITAL')")
@@ -123,4 +276,27 @@ public class BloodRequestController {
         List<BloodRequestResponseDto> requests = bloodRequestService.getAllBloodRequests();
         return ResponseEntity.ok(requests);
     }
+    
+    // Version paginée : total calculé seulement si withTotal=true
+    @GetMapping("/all/page")
+    @PreAuthorize("hasRole('HOSPITAL')")
+    public ResponseEntity<PageResponseDto<BloodRequestResponseDto>> getAllBloodRequestsPage(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "createdAt,desc") String sort,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        PageResponseDto<BloodRequestResponseDto> requests =
+                bloodRequestService.getAllBloodRequestsPage(page, size, sort, withTotal);
+        return ResponseEntity.ok(requests);
+    }
+    
+    // Compare la version aux en-têtes conditionnels avant tout chargement ; checkNotModified
+    // positionne aussi ETag et Last-Modified sur la réponse complète. Sans demande, le 404 habituel s'applique
+    private static boolean isNotModified(BloodRequestVersion version, WebRequest webRequest) {
+        return version.exists() && webRequest.checkNotModified(version.etag(), version.lastModifiedMillis());
+    }
+    
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+    }
 }
\ No newline at end of file
@@ -1,14 +1,19 @@
 package com.blooddonation.controller;
 
 import com.blooddonation.dto.BloodRequestResponseResponseDto;
+import com.blooddonation.enums.ExportFormat;
 import com.blooddonation.service.BloodRequestResponseService;
+import com.blooddonation.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -19,6 +24,9 @@ public class BloodRequestResponseController {
     @Autowired
     private BloodRequestResponseService responseService;
     
+    @Autowired
+    private ExportService exportService;
+    
     // Endpoints pour les donneurs
     @PostMapping("/request/{requestId}/donor/{donorUserId}")
     @PreAuthorize("hasRole('USER')")
@@ -57,6 +65,20 @@ public class BloodRequestResponseController {
         return ResponseEntity.ok(responses);
     }
     
+    // Export en flux de toutes les réponses reçues par l'hôpital (NDJSON par défaut, ou CSV)
+    @GetMapping("/hospital/{hospitalUserId}/export")
+    @PreAuthorize("hasRole('HOSPITAL')")
+    public void exportResponses(
+            @PathVariable Long hospitalUserId,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            HttpServletResponse response) throws IOException {
+        exportService.checkHospitalUser(hospitalUserId);
+        response.setContentType(format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"reponses-" + hospitalUserId + "." + format.getExtension() + "\"");
+        exportService.exportResponses(hospitalUserId, format, response.getOutputStream());
+    }
+    
     @PutMapping("/{responseId}/accept/hospital/{hospitalUserId}")
     @PreAuthorize("hasRole('HOSPITAL')")
     public ResponseEntity<Void> acceptDonorResponse(
@@ -1,16 +1,20 @@
 package com.blooddonation.controller;
 
 import com.blooddonation.dto.ContactDto;
+import com.blooddonation.dto.ContactImportResultDto;
 import com.blooddonation.dto.ContactResponseDto;
 import com.blooddonation.enums.BloodType;
 import com.blooddonation.service.ContactService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -29,6 +33,24 @@ public class ContactController {
         return new ResponseEntity<>(contact, HttpStatus.CREATED);
     }
     
+    // Import en masse depuis un tableau JSON de contacts
+    @PostMapping(value = "/user/{userId}/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ContactImportResultDto> importContacts(@PathVariable Long userId,
+                                                                 @RequestBody List<ContactDto> contacts) {
+        ContactImportResultDto result = contactService.importContacts(userId, contacts);
+        return ResponseEntity.ok(result);
+    }
+    
+    // Import en masse depuis un fichier CSV, lu au fil de l'eau
+    @PostMapping(value = "/user/{userId}/import", consumes = "text/csv")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ContactImportResultDto> importContactsCsv(@PathVariable Long userId,
+                                                                    HttpServletRequest request) throws IOException {
+        ContactImportResultDto result = contactService.importContactsCsv(userId, request.getReader());
+        return ResponseEntity.ok(result);
+    }
+    
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<List<ContactResponseDto>> getContactsByUserId(@PathVariable Long userId) {
@@ -1,8 +1,12 @@
 package com.blooddonation.controller;
 
+import com.blooddonation.dto.CacheStatsDto;
+import com.blooddonation.dto.PageResponseDto;
 import com.blooddonation.dto.UserRegistrationDto;
 import com.blooddonation.dto.UserResponseDto;
 import com.blooddonation.enums.BloodType;
+import com.blooddonation.service.CustomUserDetailsService;
+import com.blooddonation.service.EntityCacheService;
 import com.blooddonation.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +24,12 @@ public class UserController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+    
+    @Autowired
+    private EntityCacheService entityCacheService;
+    
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<UserResponseDto> getUserById(@PathVariable Long id) {
@@ -71,4 +81,32 @@ public class UserController {
         List<UserResponseDto> users = userService.getAllUsers();
         return ResponseEntity.ok(users);
     }
+    
+    // Version paginée : total calculé seulement si withTotal=true
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PageResponseDto<UserResponseDto>> getAllUsersPage(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        PageResponseDto<UserResponseDto> users = userService.getAllUsersPage(page, size, sort, withTotal);
+        return ResponseEntity.ok(users);
+    }
+    
+    // Hits/misses du cache des UserDetails, pour régler sa taille et son TTL
+    @GetMapping("/details-cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CacheStatsDto> getUserDetailsCacheStats() {
+        CacheStatsDto stats = userDetailsService.getCacheStats();
+        return ResponseEntity.ok(stats);
+    }
+    
+    // Une entrée par région du cache de second niveau Hibernate (users)
+    @GetMapping("/entity-cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<CacheStatsDto>> getEntityCacheStats() {
+        List<CacheStatsDto> stats = entityCacheService.getRegionStats();
+        return ResponseEntity.ok(stats);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.blooddonation.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// Résultat de la création d'une demande d'un lot, à la même position que dans la requête
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BloodRequestBatchItemDto {
+    
+    private int index;
+    private boolean created;
+    private BloodRequestResponseDto request;
+    private List<String> errors;
+    
+    // Constructeurs
+    public BloodRequestBatchItemDto() {}
+    
+    public static BloodRequestBatchItemDto created(int index, BloodRequestResponseDto request) {
+        BloodRequestBatchItemDto item = new BloodRequestBatchItemDto();
+        item.setIndex(index);
+        item.setCreated(true);
+        item.setRequest(request);
+        return item;
+    }
+    
+    public static BloodRequestBatchItemDto rejected(int index, List<String> errors) {
+        BloodRequestBatchItemDto item = new BloodRequestBatchItemDto();
+        item.setIndex(index);
+        item.setCreated(false);
+        item.setErrors(errors);
+        return item;
+    }
+    
+    // Getters et Setters
+    public int getIndex() {
+        return index;
+    }
+    
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
+    public boolean isCreated() {
+        return created;
+    }
+    
+    public void setCreated(boolean created) {
+        this.created = created;
+    }
+    
+    public BloodRequestResponseDto getRequest() {
+        return request;
+    }
+    
+    public void setRequest(BloodRequestResponseDto request) {
+        this.request = request;
+    }
+    
+    public List<String> getErrors() {
+        return errors;
+    }
+    
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
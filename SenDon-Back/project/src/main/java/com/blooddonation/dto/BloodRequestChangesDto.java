@@ -0,0 +1,54 @@
+package com.blooddonation.dto;
+
+import java.util.List;
+
+public class BloodRequestChangesDto {
+    
+    private List<BloodRequestResponseDto> content;
+    private List<Long> deletedIds;
+    private long cursor;
+    private boolean hasMore;
+    
+    // Constructeurs
+    public BloodRequestChangesDto() {}
+    
+    public BloodRequestChangesDto(List<BloodRequestResponseDto> content, List<Long> deletedIds, long cursor, boolean hasMore) {
+        this.content = content;
+        this.deletedIds = deletedIds;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+    
+    // Getters et Setters
+    public List<BloodRequestResponseDto> getContent() {
+        return content;
+    }
+    
+    public void setContent(List<BloodRequestResponseDto> content) {
+        this.content = content;
+    }
+    
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+    
+    public void setDeletedIds(List<Long> deletedIds) {
+        this.deletedIds = deletedIds;
+    }
+    
+    public long getCursor() {
+        return cursor;
+    }
+    
+    public void setCursor(long cursor) {
+        this.cursor = cursor;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -26,12 +26,12 @@ public class BloodRequestDto {
     @NotNull(message = "La latitude est obligatoire")
     @DecimalMin(value = "-90.0", message = "Latitude invalide")
     @DecimalMax(value = "90.0", message = "Latitude invalide")
-    private BigDecimal latitude;
+    private Double latitude;
     
     @NotNull(message = "La longitude est obligatoire")
     @DecimalMin(value = "-180.0", message = "Longitude invalide")
     @DecimalMax(value = "180.0", message = "Longitude invalide")
-    private BigDecimal longitude;
+    private Double longitude;
     
     @NotNull(message = "Le rayon de recherche est obligatoire")
     @Min(value = 1, message = "Le rayon doit être d'au moins 1 km")
@@ -95,19 +95,19 @@ public class BloodRequestDto {
         this.description = description;
     }
     
-    public BigDecimal getLatitude() {
+    public Double getLatitude() {
         return latitude;
     }
     
-    public void setLatitude(BigDecimal latitude) {
+    public void setLatitude(Double latitude) {
         this.latitude = latitude;
     }
     
-    public BigDecimal getLongitude() {
+    public Double getLongitude() {
         return longitude;
     }
     
-    public void setLongitude(BigDecimal longitude) {
+    public void setLongitude(Double longitude) {
         this.longitude = longitude;
     }
     
@@ -3,6 +3,7 @@ package com.blooddonation.dto;
 import com.blooddonation.enums.BloodType;
 import com.blooddonation.enums.RequestStatus;
 import com.blooddonation.enums.UrgencyLevel;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -14,8 +15,8 @@ public class BloodRequestResponseDto {
     private BigDecimal quantityMl;
     private UrgencyLevel urgencyLevel;
     private String description;
-    private BigDecimal latitude;
-    private BigDecimal longitude;
+    private double latitude;
+    private double longitude;
     private Integer searchRadiusKm;
     private String hospitalAddress;
     private String hospitalName;
@@ -32,9 +33,40 @@ public class BloodRequestResponseDto {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
+    // Renseignée uniquement pour les recherches par position
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double distanceKm;
+    
     // Constructeurs
     public BloodRequestResponseDto() {}
     
+    // Copie : les DTO de l'index des demandes actives sont partagés et ne doivent pas être modifiés
+    public BloodRequestResponseDto(BloodRequestResponseDto source) {
+        this.id = source.id;
+        this.bloodType = source.bloodType;
+        this.quantityMl = source.quantityMl;
+        this.urgencyLevel = source.urgencyLevel;
+        this.description = source.description;
+        this.latitude = source.latitude;
+        this.longitude = source.longitude;
+        this.searchRadiusKm = source.searchRadiusKm;
+        this.hospitalAddress = source.hospitalAddress;
+        this.hospitalName = source.hospitalName;
+        this.contactPhone = source.contactPhone;
+        this.contactEmail = source.contactEmail;
+        this.deadline = source.deadline;
+        this.status = source.status;
+        this.notes = source.notes;
+        this.hospitalUserId = source.hospitalUserId;
+        this.hospitalUserName = source.hospitalUserName;
+        this.responseCount = source.responseCount;
+        this.pendingResponseCount = source.pendingResponseCount;
+        this.acceptedResponseCount = source.acceptedResponseCount;
+        this.createdAt = source.createdAt;
+        this.updatedAt = source.updatedAt;
+        this.distanceKm = source.distanceKm;
+    }
+    
     // Getters et Setters
     public Long getId() {
         return id;
@@ -76,19 +108,19 @@ public class BloodRequestResponseDto {
         this.description = description;
     }
     
-    public BigDecimal getLatitude() {
+    public double getLatitude() {
         return latitude;
     }
     
-    public void setLatitude(BigDecimal latitude) {
+    public void setLatitude(double latitude) {
         this.latitude = latitude;
     }
     
-    public BigDecimal getLongitude() {
+    public double getLongitude() {
         return longitude;
     }
     
-    public void setLongitude(BigDecimal longitude) {
+    public void setLongitude(double longitude) {
         this.longitude = longitude;
     }
     
@@ -211,4 +243,12 @@ public class BloodRequestResponseDto {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+    
+    public Double getDistanceKm() {
+        return distanceKm;
+    }
+    
+    public void setDistanceKm(Double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.blooddonation.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ContactImportResultDto {
+    
+    // Au-delà, les lignes rejetées sont seulement comptées
+    public static final int MAX_REPORTED_ERRORS = 100;
+    
+    private int imported;
+    private int rejected;
+    private List<String> errors = new ArrayList<>();
+    
+    // Constructeurs
+    public ContactImportResultDto() {}
+    
+    public void addImported() {
+        imported++;
+    }
+    
+    public void addError(int row, String message) {
+        rejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add("Ligne " + row + " : " + message);
+        }
+    }
+    
+    // Getters et Setters
+    public int getImported() {
+        return imported;
+    }
+    
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+    
+    public int getRejected() {
+        return rejected;
+    }
+    
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+    
+    public List<String> getErrors() {
+        return errors;
+    }
+    
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,44 @@
+package com.blooddonation.dto;
+
+import java.util.List;
+
+public class CursorPageDto<T> {
+    
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasMore;
+    
+    // Constructeurs
+    public CursorPageDto() {}
+    
+    public CursorPageDto(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+    
+    // Getters et Setters
+    public List<T> getContent() {
+        return content;
+    }
+    
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,75 @@
+package com.blooddonation.dto;
+
+import com.blooddonation.enums.BloodType;
+
+public class DonorMatchDto {
+    
+    private Long donorUserId;
+    private String donorUserName;
+    private String donorUserPhone;
+    private BloodType bloodType;
+    private String city;
+    private double distanceKm;
+    
+    // Constructeurs
+    public DonorMatchDto() {}
+    
+    public DonorMatchDto(Long donorUserId, String donorUserName, String donorUserPhone,
+                         BloodType bloodType, String city, double distanceKm) {
+        this.donorUserId = donorUserId;
+        this.donorUserName = donorUserName;
+        this.donorUserPhone = donorUserPhone;
+        this.bloodType = bloodType;
+        this.city = city;
+        this.distanceKm = distanceKm;
+    }
+    
+    // Getters et Setters
+    public Long getDonorUserId() {
+        return donorUserId;
+    }
+    
+    public void setDonorUserId(Long donorUserId) {
+        this.donorUserId = donorUserId;
+    }
+    
+    public String getDonorUserName() {
+        return donorUserName;
+    }
+    
+    public void setDonorUserName(String donorUserName) {
+        this.donorUserName = donorUserName;
+    }
+    
+    public String getDonorUserPhone() {
+        return donorUserPhone;
+    }
+    
+    public void setDonorUserPhone(String donorUserPhone) {
+        this.donorUserPhone = donorUserPhone;
+    }
+    
+    public BloodType getBloodType() {
+        return bloodType;
+    }
+    
+    public void setBloodType(BloodType bloodType) {
+        this.bloodType = bloodType;
+    }
+    
+    public String getCity() {
+        return city;
+    }
+    
+    public void setCity(String city) {
+        this.city = city;
+    }
+    
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+    
+    public void setDistanceKm(double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+}
@@ -0,0 +1,65 @@
+package com.blooddonation.dto;
+
+import java.util.List;
+
+public class NearbyIndexConsistencyDto {
+    
+    private boolean consistent;
+    private int indexCount;
+    private int databaseCount;
+    private List<Long> missingFromIndex;
+    private List<Long> unexpectedInIndex;
+    
+    // Constructeurs
+    public NearbyIndexConsistencyDto() {}
+    
+    public NearbyIndexConsistencyDto(int indexCount, int databaseCount,
+                                     List<Long> missingFromIndex, List<Long> unexpectedInIndex) {
+        this.consistent = missingFromIndex.isEmpty() && unexpectedInIndex.isEmpty();
+        this.indexCount = indexCount;
+        this.databaseCount = databaseCount;
+        this.missingFromIndex = missingFromIndex;
+        this.unexpectedInIndex = unexpectedInIndex;
+    }
+    
+    // Getters et Setters
+    public boolean isConsistent() {
+        return consistent;
+    }
+    
+    public void setConsistent(boolean consistent) {
+        this.consistent = consistent;
+    }
+    
+    public int getIndexCount() {
+        return indexCount;
+    }
+    
+    public void setIndexCount(int indexCount) {
+        this.indexCount = indexCount;
+    }
+    
+    public int getDatabaseCount() {
+        return databaseCount;
+    }
+    
+    public void setDatabaseCount(int databaseCount) {
+        this.databaseCount = databaseCount;
+    }
+    
+    public List<Long> getMissingFromIndex() {
+        return missingFromIndex;
+    }
+    
+    public void setMissingFromIndex(List<Long> missingFromIndex) {
+        this.missingFromIndex = missingFromIndex;
+    }
+    
+    public List<Long> getUnexpectedInIndex() {
+        return unexpectedInIndex;
+    }
+    
+    public void setUnexpectedInIndex(List<Long> unexpectedInIndex) {
+        this.unexpectedInIndex = unexpectedInIndex;
+    }
+}
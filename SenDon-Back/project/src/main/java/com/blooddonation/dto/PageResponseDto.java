@@ -0,0 +1,79 @@
+package com.blooddonation.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+public class PageResponseDto<T> {
+    
+    private List<T> content;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    
+    // Renseignés uniquement quand le total est demandé (requête COUNT supplémentaire)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer totalPages;
+    
+    // Constructeurs
+    public PageResponseDto() {}
+    
+    public PageResponseDto(List<T> content, int page, int size, boolean hasNext) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.hasNext = hasNext;
+    }
+    
+    // Getters et Setters
+    public List<T> getContent() {
+        return content;
+    }
+    
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+    
+    public int getPage() {
+        return page;
+    }
+    
+    public void setPage(int page) {
+        this.page = page;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public void setSize(int size) {
+        this.size = size;
+    }
+    
+    public boolean isHasNext() {
+        return hasNext;
+    }
+    
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+    
+    public Long getTotalElements() {
+        return totalElements;
+    }
+    
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+    
+    public Integer getTotalPages() {
+        return totalPages;
+    }
+    
+    public void setTotalPages(Integer totalPages) {
+        this.totalPages = totalPages;
+    }
+}
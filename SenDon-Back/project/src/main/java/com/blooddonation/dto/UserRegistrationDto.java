@@ -41,6 +41,15 @@ public class UserRegistrationDto {
     private String city;
     private String postalCode;
     
+    // Position du donneur (optionnelle)
+    @DecimalMin(value = "-90.0", message = "Latitude invalide")
+    @DecimalMax(value = "90.0", message = "Latitude invalide")
+    private Double latitude;
+    
+    @DecimalMin(value = "-180.0", message = "Longitude invalide")
+    @DecimalMax(value = "180.0", message = "Longitude invalide")
+    private Double longitude;
+    
     // Champs spécifiques aux hôpitaux
     private String hospitalName;
     private String licenseNumber;
@@ -148,6 +157,22 @@ public class UserRegistrationDto {
         this.postalCode = postalCode;
     }
     
+    public Double getLatitude() {
+        return latitude;
+    }
+    
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+    
+    public Double getLongitude() {
+        return longitude;
+    }
+    
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+    
     public String getHospitalName() {
         return hospitalName;
     }
@@ -19,6 +19,8 @@ public class UserResponseDto {
     private String address;
     private String city;
     private String postalCode;
+    private Double latitude;
+    private Double longitude;
     private String hospitalName;
     private String licenseNumber;
     private LocalDateTime createdAt;
@@ -127,6 +129,22 @@ public class UserResponseDto {
         this.postalCode = postalCode;
     }
     
+    public Double getLatitude() {
+        return latitude;
+    }
+    
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+    
+    public Double getLongitude() {
+        return longitude;
+    }
+    
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+    
     public String getHospitalName() {
         return hospitalName;
     }
@@ -3,8 +3,10 @@ package com.blooddonation.entity;
 import com.blooddonation.enums.BloodType;
 import com.blooddonation.enums.RequestStatus;
 import com.blooddonation.enums.UrgencyLevel;
+import com.blooddonation.util.GeoUtils;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -13,12 +15,20 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+// Pas de cache de second niveau : chaque réponse d'un donneur met à jour les compteurs par un UPDATE groupé,
+// qui vide toute la région de l'entité ; le cache serait invalidé plus souvent qu'il ne servirait
 @Entity
-@Table(name = "blood_requests")
+@Table(name = "blood_requests", indexes = {
+        @Index(name = "idx_blood_requests_geo_cell", columnList = "status, blood_type, geo_cell"),
+        @Index(name = "idx_blood_requests_geo_box", columnList = "status, blood_type, latitude, longitude"),
+        @Index(name = "idx_blood_requests_feed", columnList = "status, urgency_level, created_at, id")
+})
 public class BloodRequest {
     
+    // Séquence avec réservation de 50 ids pour permettre les INSERT par lots (création groupée)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "blood_requests_seq")
+    @SequenceGenerator(name = "blood_requests_seq", sequenceName = "blood_requests_seq", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Le groupe sanguin est obligatoire")
@@ -41,17 +51,20 @@ public class BloodRequest {
     @Column(name = "description", nullable = false, length = 1000)
     private String description;
     
-    @NotNull(message = "La latitude est obligatoire")
+    // Coordonnées manipulées en double ; le stockage reste en DECIMAL pour ne pas modifier le schéma
     @DecimalMin(value = "-90.0", message = "Latitude invalide")
     @DecimalMax(value = "90.0", message = "Latitude invalide")
-    @Column(name = "latitude", nullable = false, precision = 10, scale = 8)
-    private BigDecimal latitude;
+    @Column(name = "latitude", nullable = false, columnDefinition = "DECIMAL(10,8)")
+    private double latitude;
     
-    @NotNull(message = "La longitude est obligatoire")
     @DecimalMin(value = "-180.0", message = "Longitude invalide")
     @DecimalMax(value = "180.0", message = "Longitude invalide")
-    @Column(name = "longitude", nullable = false, precision = 11, scale = 8)
-    private BigDecimal longitude;
+    @Column(name = "longitude", nullable = false, columnDefinition = "DECIMAL(11,8)")
+    private double longitude;
+    
+    // Cellule de la grille géographique, calculée à partir de latitude/longitude
+    @Column(name = "geo_cell")
+    private Integer geoCell;
     
     @NotNull(message = "Le rayon de recherche est obligatoire")
     @Min(value = 1, message = "Le rayon doit être d'au moins 1 km")
@@ -97,6 +110,20 @@ public class BloodRequest {
     @OneToMany(mappedBy = "bloodRequest", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<BloodRequestResponse> responses = new ArrayList<>();
     
+    // Compteurs dénormalisés des réponses : jamais écrits par le dirty checking,
+    // seulement par les UPDATE atomiques de BloodRequestRepository.adjustResponseCounters
+    @ColumnDefault("0")
+    @Column(name = "response_count", nullable = false, updatable = false)
+    private int responseCount;
+    
+    @ColumnDefault("0")
+    @Column(name = "pending_count", nullable = false, updatable = false)
+    private int pendingCount;
+    
+    @ColumnDefault("0")
+    @Column(name = "accepted_count", nullable = false, updatable = false)
+    private int acceptedCount;
+    
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -109,7 +136,7 @@ public class BloodRequest {
     public BloodRequest() {}
     
     public BloodRequest(BloodType bloodType, BigDecimal quantityMl, UrgencyLevel urgencyLevel,
-                       String description, BigDecimal latitude, BigDecimal longitude,
+                       String description, double latitude, double longitude,
                        Integer searchRadiusKm, String hospitalAddress, String hospitalName,
                        String contactPhone, LocalDateTime deadline, User hospitalUser) {
         this.bloodType = bloodType;
@@ -126,6 +153,12 @@ public class BloodRequest {
         this.hospitalUser = hospitalUser;
     }
     
+    @PrePersist
+    @PreUpdate
+    private void updateGeoCell() {
+        geoCell = GeoUtils.cellOf(latitude, longitude);
+    }
+    
     // Getters et Setters
     public Long getId() {
         return id;
@@ -167,22 +200,26 @@ public class BloodRequest {
         this.description = description;
     }
     
-    public BigDecimal getLatitude() {
+    public double getLatitude() {
         return latitude;
     }
     
-    public void setLatitude(BigDecimal latitude) {
+    public void setLatitude(double latitude) {
         this.latitude = latitude;
     }
     
-    public BigDecimal getLongitude() {
+    public double getLongitude() {
         return longitude;
     }
     
-    public void setLongitude(BigDecimal longitude) {
+    public void setLongitude(double longitude) {
         this.longitude = longitude;
     }
     
+    public Integer getGeoCell() {
+        return geoCell;
+    }
+    
     public Integer getSearchRadiusKm() {
         return searchRadiusKm;
     }
@@ -263,6 +300,18 @@ public class BloodRequest {
         this.responses = responses;
     }
     
+    public int getResponseCount() {
+        return responseCount;
+    }
+    
+    public int getPendingCount() {
+        return pendingCount;
+    }
+    
+    public int getAcceptedCount() {
+        return acceptedCount;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
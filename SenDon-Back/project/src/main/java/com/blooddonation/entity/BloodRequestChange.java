@@ -0,0 +1,49 @@
+package com.blooddonation.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Entrée du journal des modifications des demandes, écrite uniquement par les triggers de blood_requests
+// (voir DataMaintenanceService) et lue par la synchronisation différentielle
+@Entity
+@Table(name = "blood_request_changes", indexes = {
+        @Index(name = "idx_blood_request_changes_changed_at", columnList = "changed_at")
+})
+public class BloodRequestChange {
+    
+    // Numéro pris dans blood_request_changes_seq à l'écriture, visible au commit de la transaction
+    @Id
+    private Long seq;
+    
+    // Pas de clé étrangère : l'entrée d'une suppression survit à la demande
+    @Column(name = "blood_request_id", nullable = false)
+    private Long bloodRequestId;
+    
+    @Column(nullable = false)
+    private boolean deleted;
+    
+    // Horloge de la base au moment de l'écriture (SYSDATE)
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+    
+    // Constructeurs
+    public BloodRequestChange() {}
+    
+    // Getters
+    public Long getSeq() {
+        return seq;
+    }
+    
+    public Long getBloodRequestId() {
+        return bloodRequestId;
+    }
+    
+    public boolean isDeleted() {
+        return deleted;
+    }
+    
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+}
@@ -16,8 +16,10 @@ import java.time.LocalDateTime;
 @Table(name = "contacts")
 public class Contact {
     
+    // Séquence avec réservation de 50 ids : contrairement à IDENTITY, les INSERT peuvent être regroupés en lots JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contacts_seq")
+    @SequenceGenerator(name = "contacts_seq", sequenceName = "contacts_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Le prénom est obligatoire")
@@ -0,0 +1,46 @@
+package com.blooddonation.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// Date à partir de laquelle les tokens d'un utilisateur sont de nouveau acceptés
+@Entity
+@Table(name = "token_revocations", indexes = {
+        @Index(name = "idx_token_revocations_tokens_valid_after", columnList = "tokens_valid_after")
+})
+public class TokenRevocation {
+    
+    // Pas de clé étrangère : la révocation doit survivre à la suppression de l'utilisateur
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "tokens_valid_after", nullable = false)
+    private Instant tokensValidAfter;
+    
+    // Constructeurs
+    public TokenRevocation() {}
+    
+    public TokenRevocation(Long userId, Instant tokensValidAfter) {
+        this.userId = userId;
+        this.tokensValidAfter = tokensValidAfter;
+    }
+    
+    // Getters et Setters
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Instant getTokensValidAfter() {
+        return tokensValidAfter;
+    }
+    
+    public void setTokensValidAfter(Instant tokensValidAfter) {
+        this.tokensValidAfter = tokensValidAfter;
+    }
+}
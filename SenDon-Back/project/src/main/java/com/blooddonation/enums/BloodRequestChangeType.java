@@ -0,0 +1,11 @@
+package com.blooddonation.enums;
+
+// Nature d'une modification de demandes de sang, transmise aux abonnés du flux temps réel
+public enum BloodRequestChangeType {
+    CREATED,
+    UPDATED,
+    CANCELLED,
+    COMPLETED,
+    EXPIRED,
+    DELETED
+}
@@ -0,0 +1,26 @@
+package com.blooddonation.enums;
+
+/**
+ * Formats proposés pour l'export de l'historique d'un hôpital.
+ */
+public enum ExportFormat {
+    // Un objet JSON par ligne
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv;charset=UTF-8", "csv");
+    
+    private final String contentType;
+    private final String extension;
+    
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+    
+    public String getContentType() {
+        return contentType;
+    }
+    
+    public String getExtension() {
+        return extension;
+    }
+}
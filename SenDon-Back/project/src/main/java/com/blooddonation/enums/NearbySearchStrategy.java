@@ -0,0 +1,16 @@
+package com.blooddonation.enums;
+
+/**
+ * Stratégie utilisée pour la recherche des demandes proches
+ * (propriété blood-requests.nearby.strategy).
+ */
+public enum NearbySearchStrategy {
+    // Index en mémoire des demandes actives, repli sur GRID_CELL tant qu'il n'est pas chargé
+    IN_MEMORY,
+    // Pré-filtrage SQL sur la colonne geo_cell
+    GRID_CELL,
+    // Pré-filtrage SQL sur un rectangle latitude/longitude
+    BOUNDING_BOX,
+    // Calcul de distance sur toutes les demandes actives du groupe
+    FULL_SCAN
+}
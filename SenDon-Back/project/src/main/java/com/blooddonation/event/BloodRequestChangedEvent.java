@@ -0,0 +1,21 @@
+package com.blooddonation.event;
+
+import com.blooddonation.enums.BloodRequestChangeType;
+
+import java.util.List;
+
+/**
+ * Publié dans la transaction de chaque écriture touchant des demandes de sang : création,
+ * modification, changement de statut, compteurs de réponses, suppression avec l'utilisateur hôpital.
+ * Une liste vide signale une correction groupée dont les demandes ne sont pas connues.
+ */
+public record BloodRequestChangedEvent(BloodRequestChangeType type, List<Long> requestIds) {
+    
+    public static BloodRequestChangedEvent of(BloodRequestChangeType type, Long requestId) {
+        return new BloodRequestChangedEvent(type, List.of(requestId));
+    }
+    
+    public static BloodRequestChangedEvent unspecified() {
+        return new BloodRequestChangedEvent(BloodRequestChangeType.UPDATED, List.of());
+    }
+}
@@ -4,7 +4,7 @@ import com.blooddonation.dto.BloodRequestDto;
 import com.blooddonation.dto.BloodRequestResponseDto;
 import com.blooddonation.entity.BloodRequest;
 import com.blooddonation.entity.User;
-import com.blooddonation.enums.ResponseStatus;
+import com.blooddonation.projection.BloodRequestSummary;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -64,21 +64,50 @@ public class BloodRequestMapper {
                                    request.getHospitalUser().getLastName());
         }
         
-        // Calculer les statistiques des réponses
-        if (request.getResponses() != null) {
-            dto.setResponseCount(request.getResponses().size());
-            dto.setPendingResponseCount((int) request.getResponses().stream()
-                    .filter(r -> r.getStatus() == ResponseStatus.PENDING)
-                    .count());
-            dto.setAcceptedResponseCount((int) request.getResponses().stream()
-                    .filter(r -> r.getStatus() == ResponseStatus.ACCEPTED)
-                    .count());
-        } else {
-            dto.setResponseCount(0);
-            dto.setPendingResponseCount(0);
-            dto.setAcceptedResponseCount(0);
+        // Compteurs dénormalisés : la collection des réponses n'est jamais chargée
+        dto.setResponseCount(request.getResponseCount());
+        dto.setPendingResponseCount(request.getPendingCount());
+        dto.setAcceptedResponseCount(request.getAcceptedCount());
+        
+        return dto;
+    }
+    
+    public BloodRequestResponseDto toResponseDto(BloodRequestSummary request) {
+        if (request == null) {
+            return null;
         }
         
+        BloodRequestResponseDto dto = new BloodRequestResponseDto();
+        dto.setId(request.id());
+        dto.setBloodType(request.bloodType());
+        dto.setQuantityMl(request.quantityMl());
+        dto.setUrgencyLevel(request.urgencyLevel());
+        dto.setDescription(request.description());
+        dto.setLatitude(request.latitude());
+        dto.setLongitude(request.longitude());
+        dto.setSearchRadiusKm(request.searchRadiusKm());
+        dto.setHospitalAddress(request.hospitalAddress());
+        dto.setHospitalName(request.hospitalName());
+        dto.setContactPhone(request.contactPhone());
+        dto.setContactEmail(request.contactEmail());
+        dto.setDeadline(request.deadline());
+        dto.setStatus(request.status());
+        dto.setNotes(request.notes());
+        dto.setHospitalUserId(request.hospitalUserId());
+        dto.setHospitalUserName(request.hospitalUserFirstName() + " " + request.hospitalUserLastName());
+        dto.setResponseCount(request.responseCount());
+        dto.setPendingResponseCount(request.pendingCount());
+        dto.setAcceptedResponseCount(request.acceptedCount());
+        dto.setCreatedAt(request.createdAt());
+        dto.setUpdatedAt(request.updatedAt());
+        
+        return dto;
+    }
+    
+    // Copie du DTO avec la distance
+    public BloodRequestResponseDto withDistance(BloodRequestResponseDto source, double distanceKm) {
+        BloodRequestResponseDto dto = new BloodRequestResponseDto(source);
+        dto.setDistanceKm(Math.round(distanceKm * 100) / 100.0);
         return dto;
     }
     
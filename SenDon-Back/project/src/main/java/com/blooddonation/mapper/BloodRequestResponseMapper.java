@@ -4,6 +4,7 @@ import com.blooddonation.dto.BloodRequestResponseResponseDto;
 import com.blooddonation.entity.BloodRequest;
 import com.blooddonation.entity.BloodRequestResponse;
 import com.blooddonation.entity.User;
+import com.blooddonation.projection.BloodRequestResponseSummary;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -52,4 +53,27 @@ public class BloodRequestResponseMapper {
         return dto;
     }
     
+    public BloodRequestResponseResponseDto toResponseDto(BloodRequestResponseSummary response) {
+        if (response == null) {
+            return null;
+        }
+        
+        BloodRequestResponseResponseDto dto = new BloodRequestResponseResponseDto();
+        dto.setId(response.id());
+        dto.setStatus(response.status());
+        dto.setMessage(response.message());
+        dto.setResponseDate(response.responseDate());
+        dto.setCreatedAt(response.createdAt());
+        dto.setUpdatedAt(response.updatedAt());
+        dto.setBloodRequestId(response.bloodRequestId());
+        dto.setBloodRequestDescription(response.bloodRequestDescription());
+        dto.setHospitalName(response.hospitalName());
+        dto.setDonorUserId(response.donorUserId());
+        dto.setDonorUserName(response.donorUserFirstName() + " " + response.donorUserLastName());
+        dto.setDonorUserEmail(response.donorUserEmail());
+        dto.setDonorUserPhone(response.donorUserPhone());
+        
+        return dto;
+    }
+    
 }
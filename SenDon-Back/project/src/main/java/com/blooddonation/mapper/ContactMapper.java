@@ -4,6 +4,7 @@ import com.blooddonation.dto.ContactDto;
 import com.blooddonation.dto.ContactResponseDto;
 import com.blooddonation.entity.Contact;
 import com.blooddonation.entity.User;
+import com.blooddonation.projection.ContactSummary;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -55,6 +56,30 @@ public class ContactMapper {
         return dto;
     }
     
+    public ContactResponseDto toResponseDto(ContactSummary contact) {
+        if (contact == null) {
+            return null;
+        }
+        
+        ContactResponseDto dto = new ContactResponseDto();
+        dto.setId(contact.id());
+        dto.setFirstName(contact.firstName());
+        dto.setLastName(contact.lastName());
+        dto.setEmail(contact.email());
+        dto.setPhoneNumber(contact.phoneNumber());
+        dto.setBirthDate(contact.birthDate());
+        dto.setBloodType(contact.bloodType());
+        dto.setRelationship(contact.relationship());
+        dto.setAddress(contact.address());
+        dto.setCity(contact.city());
+        dto.setPostalCode(contact.postalCode());
+        dto.setNotes(contact.notes());
+        dto.setCreatedAt(contact.createdAt());
+        dto.setUpdatedAt(contact.updatedAt());
+        
+        return dto;
+    }
+    
     public void updateEntityFromDto(Contact contact, ContactDto dto) {
         if (dto == null || contact == null) {
             return;
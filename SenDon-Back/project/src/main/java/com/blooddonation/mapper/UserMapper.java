@@ -3,6 +3,7 @@ package com.blooddonation.mapper;
 import com.blooddonation.dto.UserRegistrationDto;
 import com.blooddonation.dto.UserResponseDto;
 import com.blooddonation.entity.User;
+import com.blooddonation.projection.UserSummary;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -25,6 +26,8 @@ public class UserMapper {
         user.setAddress(dto.getAddress());
         user.setCity(dto.getCity());
         user.setPostalCode(dto.getPostalCode());
+        user.setLatitude(dto.getLatitude());
+        user.setLongitude(dto.getLongitude());
         user.setHospitalName(dto.getHospitalName());
         user.setLicenseNumber(dto.getLicenseNumber());
         
@@ -48,6 +51,8 @@ public class UserMapper {
         dto.setAddress(user.getAddress());
         dto.setCity(user.getCity());
         dto.setPostalCode(user.getPostalCode());
+        dto.setLatitude(user.getLatitude());
+        dto.setLongitude(user.getLongitude());
         dto.setHospitalName(user.getHospitalName());
         dto.setLicenseNumber(user.getLicenseNumber());
         dto.setCreatedAt(user.getCreatedAt());
@@ -56,6 +61,33 @@ public class UserMapper {
         return dto;
     }
     
+    public UserResponseDto toResponseDto(UserSummary user) {
+        if (user == null) {
+            return null;
+        }
+        
+        UserResponseDto dto = new UserResponseDto();
+        dto.setId(user.id());
+        dto.setFirstName(user.firstName());
+        dto.setLastName(user.lastName());
+        dto.setEmail(user.email());
+        dto.setPhoneNumber(user.phoneNumber());
+        dto.setBirthDate(user.birthDate());
+        dto.setBloodType(user.bloodType());
+        dto.setRole(user.role());
+        dto.setAddress(user.address());
+        dto.setCity(user.city());
+        dto.setPostalCode(user.postalCode());
+        dto.setLatitude(user.latitude());
+        dto.setLongitude(user.longitude());
+        dto.setHospitalName(user.hospitalName());
+        dto.setLicenseNumber(user.licenseNumber());
+        dto.setCreatedAt(user.createdAt());
+        dto.setUpdatedAt(user.updatedAt());
+        
+        return dto;
+    }
+    
     public void updateEntityFromDto(User user, UserRegistrationDto dto) {
         if (dto == null || user == null) {
             return;
@@ -71,6 +103,8 @@ public class UserMapper {
         user.setAddress(dto.getAddress());
         user.setCity(dto.getCity());
         user.setPostalCode(dto.getPostalCode());
+        user.setLatitude(dto.getLatitude());
+        user.setLongitude(dto.getLongitude());
         user.setHospitalName(dto.getHospitalName());
         user.setLicenseNumber(dto.getLicenseNumber());
     }
@@ -0,0 +1,23 @@
+package com.blooddonation.projection;
+
+import com.blooddonation.enums.ResponseStatus;
+
+import java.time.LocalDateTime;
+
+// Colonnes de BloodRequestResponseResponseDto lues directement en base, demande et donneur joints
+public record BloodRequestResponseSummary(
+        Long id,
+        ResponseStatus status,
+        String message,
+        LocalDateTime responseDate,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long bloodRequestId,
+        String bloodRequestDescription,
+        String hospitalName,
+        Long donorUserId,
+        String donorUserFirstName,
+        String donorUserLastName,
+        String donorUserEmail,
+        String donorUserPhone) {
+}
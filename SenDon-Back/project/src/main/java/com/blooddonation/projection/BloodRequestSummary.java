@@ -0,0 +1,35 @@
+package com.blooddonation.projection;
+
+import com.blooddonation.enums.BloodType;
+import com.blooddonation.enums.RequestStatus;
+import com.blooddonation.enums.UrgencyLevel;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Colonnes de BloodRequestResponseDto lues directement en base, avec le nom de l'hôpital joint
+public record BloodRequestSummary(
+        Long id,
+        BloodType bloodType,
+        BigDecimal quantityMl,
+        UrgencyLevel urgencyLevel,
+        String description,
+        double latitude,
+        double longitude,
+        Integer searchRadiusKm,
+        String hospitalAddress,
+        String hospitalName,
+        String contactPhone,
+        String contactEmail,
+        LocalDateTime deadline,
+        RequestStatus status,
+        String notes,
+        Long hospitalUserId,
+        String hospitalUserFirstName,
+        String hospitalUserLastName,
+        int responseCount,
+        int pendingCount,
+        int acceptedCount,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
@@ -0,0 +1,32 @@
+package com.blooddonation.projection;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Nombre de demandes et date de la dernière modification, lus sans charger les lignes (ETag, Last-Modified)
+public record BloodRequestVersion(long count, LocalDateTime lastUpdatedAt) {
+    
+    // La version retient la plus récente des modifications des demandes et de l'utilisateur hôpital (nom affiché)
+    public BloodRequestVersion(long count, LocalDateTime requestsUpdatedAt, LocalDateTime hospitalUserUpdatedAt) {
+        this(count, hospitalUserUpdatedAt != null && (requestsUpdatedAt == null || hospitalUserUpdatedAt.isAfter(requestsUpdatedAt))
+                ? hospitalUserUpdatedAt : requestsUpdatedAt);
+    }
+    
+    public boolean exists() {
+        return count > 0;
+    }
+    
+    // Toute écriture sur une demande (compteurs de réponses compris) ou sur l'utilisateur hôpital met à jour
+    // un updatedAt ; une création change le nombre
+    public String etag() {
+        if (lastUpdatedAt == null) {
+            return count + "-0";
+        }
+        return count + "-" + lastUpdatedAt.toLocalDate().toEpochDay() + "." + lastUpdatedAt.toLocalTime().toNanoOfDay();
+    }
+    
+    // updatedAt est renseigné avec l'heure locale de la JVM
+    public long lastModifiedMillis() {
+        return lastUpdatedAt != null ? lastUpdatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+}
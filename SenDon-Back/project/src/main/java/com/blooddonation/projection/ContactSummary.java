@@ -0,0 +1,24 @@
+package com.blooddonation.projection;
+
+import com.blooddonation.enums.BloodType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Colonnes de ContactResponseDto lues directement en base
+public record ContactSummary(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        String phoneNumber,
+        LocalDate birthDate,
+        BloodType bloodType,
+        String relationship,
+        String address,
+        String city,
+        String postalCode,
+        String notes,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
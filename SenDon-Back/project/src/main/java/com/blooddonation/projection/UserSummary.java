@@ -0,0 +1,28 @@
+package com.blooddonation.projection;
+
+import com.blooddonation.enums.BloodType;
+import com.blooddonation.enums.UserRole;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Colonnes de UserResponseDto lues directement en base (sans mot de passe ni entité managée)
+public record UserSummary(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        String phoneNumber,
+        LocalDate birthDate,
+        BloodType bloodType,
+        UserRole role,
+        String address,
+        String city,
+        String postalCode,
+        Double latitude,
+        Double longitude,
+        String hospitalName,
+        String licenseNumber,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
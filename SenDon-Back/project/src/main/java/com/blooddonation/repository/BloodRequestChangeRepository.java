@@ -0,0 +1,36 @@
+package com.blooddonation.repository;
+
+import com.blooddonation.entity.BloodRequestChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BloodRequestChangeRepository extends JpaRepository<BloodRequestChange, Long> {
+    
+    List<BloodRequestChange> findBySeqGreaterThanOrderBySeq(long since, Pageable pageable);
+    
+    // Dernière entrée écrite avant la date : tous les numéros inférieurs ont été pris avant elle
+    Optional<BloodRequestChange> findFirstByChangedAtBeforeOrderByChangedAtDesc(LocalDateTime limit);
+    
+    @Query("SELECT MIN(c.seq) FROM BloodRequestChange c")
+    Long findFirstSeq();
+    
+    @Query("SELECT MAX(c.seq) FROM BloodRequestChange c")
+    Long findLastSeq();
+    
+    // changed_at est écrit avec l'horloge de la base : les comparaisons utilisent la même
+    @Query(value = "SELECT SYSDATE(6)", nativeQuery = true)
+    LocalDateTime findDatabaseTime();
+    
+    @Modifying
+    @Query("DELETE FROM BloodRequestChange c WHERE c.changedAt < :limit AND c.seq < :lastSeq")
+    int deleteOlderThan(@Param("limit") LocalDateTime limit, @Param("lastSeq") long lastSeq);
+}
@@ -4,20 +4,79 @@ import com.blooddonation.entity.BloodRequest;
 import com.blooddonation.enums.BloodType;
 import com.blooddonation.enums.RequestStatus;
 import com.blooddonation.enums.UrgencyLevel;
+import com.blooddonation.projection.BloodRequestSummary;
+import com.blooddonation.projection.BloodRequestVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface BloodRequestRepository extends JpaRepository<BloodRequest, Long> {
     
+    // Listes en lecture seule : colonnes de BloodRequestResponseDto et nom de l'hôpital en une seule requête
+    String EXPORT_FETCH_SIZE = "500";
+    
+    String SUMMARY_SELECT = """
+        SELECT new com.blooddonation.projection.BloodRequestSummary(
+            br.id, br.bloodType, br.quantityMl, br.urgencyLevel, br.description, br.latitude, br.longitude,
+            br.searchRadiusKm, br.hospitalAddress, br.hospitalName, br.contactPhone, br.contactEmail,
+            br.deadline, br.status, br.notes, h.id, h.firstName, h.lastName,
+            br.responseCount, br.pendingCount, br.acceptedCount, br.createdAt, br.updatedAt)
+        FROM BloodRequest br JOIN br.hospitalUser h
+        """;
+    
+    // Distance exacte (Haversine) comparée au rayon de chaque demande, après le pré-filtrage
+    String WITHIN_SEARCH_RADIUS = """
+        AND (
+            6371 * acos(
+                cos(radians(:userLat)) * cos(radians(br.latitude)) *
+                cos(radians(br.longitude) - radians(:userLon)) +
+                sin(radians(:userLat)) * sin(radians(br.latitude))
+            )
+        ) <= br.search_radius_km
+        """;
+    
+    // Page du flux (urgency_level, created_at, id) qui suit le curseur, ou la première page quand afterId est nul.
+    // urgency_level est comparé à son rang dans l'ENUM, l'ordre utilisé par ORDER BY (voir FeedCursor)
+    String FEED_PAGE_AFTER_CURSOR = """
+        AND (
+            :afterId IS NULL
+            OR br.urgency_level < :afterUrgencyRank
+            OR (br.urgency_level = :afterUrgencyRank AND br.created_at > :afterCreatedAt)
+            OR (br.urgency_level = :afterUrgencyRank AND br.created_at = :afterCreatedAt AND br.id > :afterId)
+        )
+        ORDER BY br.urgency_level DESC, br.created_at ASC, br.id ASC
+        LIMIT :limit
+        """;
+    
+    // Rectangle latitude/longitude couvrant le rayon maximal (index status, blood_type, latitude, longitude),
+    // puis calcul exact de la distance sur les seules lignes retenues
+    String NEARBY_IN_BOUNDING_BOX_QUERY = """
+        SELECT * FROM blood_requests br
+        WHERE br.status = 'ACTIVE'
+        AND br.blood_type IN (:bloodTypes)
+        AND br.latitude BETWEEN :minLat AND :maxLat
+        AND br.longitude BETWEEN :minLon AND :maxLon
+        """ + WITHIN_SEARCH_RADIUS + FEED_PAGE_AFTER_CURSOR;
+    
     List<BloodRequest> findByHospitalUserId(Long hospitalUserId);
     
+    @Query("SELECT br.id FROM BloodRequest br WHERE br.hospitalUser.id = :hospitalUserId")
+    List<Long> findIdsByHospitalUserId(@Param("hospitalUserId") Long hospitalUserId);
+    
     List<BloodRequest> findByStatus(RequestStatus status);
     
     List<BloodRequest> findByBloodType(BloodType bloodType);
@@ -35,31 +94,181 @@ public interface BloodRequestRepository extends JpaRepository<BloodRequest, Long
     @Query("SELECT br FROM BloodRequest br WHERE br.deadline < :currentTime AND br.status = 'ACTIVE'")
     List<BloodRequest> findExpiredRequests(@Param("currentTime") LocalDateTime currentTime);
     
-    // Recherche géographique avec formule de distance Haversine
+    // Recherche géographique avec formule de distance Haversine, paginée dans l'ordre du flux
     @Query(value = """
-        SELECT * FROM blood_requests br 
-        WHERE br.status = 'ACTIVE' 
-        AND br.blood_type = :bloodType
-        AND (
-            6371 * acos(
-                cos(radians(:userLat)) * cos(radians(br.latitude)) * 
-                cos(radians(br.longitude) - radians(:userLon)) + 
-                sin(radians(:userLat)) * sin(radians(br.latitude))
-            )
-        ) <= br.search_radius_km
-        ORDER BY br.urgency_level DESC, br.created_at ASC
+        SELECT * FROM blood_requests br
+        WHERE br.status = 'ACTIVE'
+        AND br.blood_type IN (:bloodTypes)
+        """ + WITHIN_SEARCH_RADIUS + FEED_PAGE_AFTER_CURSOR, nativeQuery = true)
+    List<BloodRequest> findNearbyActiveRequests(@Param("userLat") double userLatitude,
+                                               @Param("userLon") double userLongitude,
+                                               @Param("bloodTypes") Collection<String> bloodTypes,
+                                               @Param("afterUrgencyRank") Integer afterUrgencyRank,
+                                               @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                               @Param("afterId") Long afterId,
+                                               @Param("limit") int limit);
+    
+    // Même recherche, restreinte d'abord aux cellules de la grille proches de l'utilisateur
+    // (index status, blood_type, geo_cell) avant le calcul exact de la distance
+    @Query(value = """
+        SELECT * FROM blood_requests br
+        WHERE br.status = 'ACTIVE'
+        AND br.blood_type IN (:bloodTypes)
+        AND br.geo_cell IN (:cells)
+        """ + WITHIN_SEARCH_RADIUS + FEED_PAGE_AFTER_CURSOR, nativeQuery = true)
+    List<BloodRequest> findNearbyActiveRequestsInCells(@Param("userLat") double userLatitude,
+                                                      @Param("userLon") double userLongitude,
+                                                      @Param("bloodTypes") Collection<String> bloodTypes,
+                                                      @Param("cells") List<Integer> cells,
+                                                      @Param("afterUrgencyRank") Integer afterUrgencyRank,
+                                                      @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                      @Param("afterId") Long afterId,
+                                                      @Param("limit") int limit);
+    
+    @Query(value = NEARBY_IN_BOUNDING_BOX_QUERY, nativeQuery = true)
+    List<BloodRequest> findNearbyActiveRequestsInBoundingBox(@Param("userLat") double userLatitude,
+                                                            @Param("userLon") double userLongitude,
+                                                            @Param("bloodTypes") Collection<String> bloodTypes,
+                                                            @Param("minLat") double minLatitude,
+                                                            @Param("maxLat") double maxLatitude,
+                                                            @Param("minLon") double minLongitude,
+                                                            @Param("maxLon") double maxLongitude,
+                                                            @Param("afterUrgencyRank") Integer afterUrgencyRank,
+                                                            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                            @Param("afterId") Long afterId,
+                                                            @Param("limit") int limit);
+    
+    // Rattrapage de geo_cell pour les lignes créées avant l'ajout de la colonne.
+    // Les UPDATE natifs déclarent la table modifiée : sans cela, Hibernate vide tout le cache de second niveau
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "blood_requests"))
+    @Query(value = """
+        UPDATE blood_requests
+        SET geo_cell = FLOOR(latitude + 90) * 360 + MOD(FLOOR(longitude + 180), 360)
+        WHERE geo_cell IS NULL
         """, nativeQuery = true)
-    List<BloodRequest> findNearbyActiveRequests(@Param("userLat") BigDecimal userLatitude,
-                                               @Param("userLon") BigDecimal userLongitude,
-                                               @Param("bloodType") String bloodType);
+    int backfillGeoCells();
     
     @Query("SELECT br FROM BloodRequest br WHERE br.status = 'ACTIVE' ORDER BY br.urgencyLevel DESC, br.createdAt ASC")
     List<BloodRequest> findAllActiveRequestsOrderedByUrgency();
     
+    // Pagination par clé (urgency_level, created_at, id) du flux des demandes actives
+    @Query(value = """
+        SELECT * FROM blood_requests br
+        WHERE br.status = 'ACTIVE'
+        ORDER BY br.urgency_level DESC, br.created_at ASC, br.id ASC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<BloodRequest> findActiveRequestsFirstPage(@Param("limit") int limit);
+    
+    @Query(value = """
+        SELECT * FROM blood_requests br
+        WHERE br.status = 'ACTIVE'
+        AND (
+            br.urgency_level < :urgencyRank
+            OR (br.urgency_level = :urgencyRank AND br.created_at > :createdAt)
+            OR (br.urgency_level = :urgencyRank AND br.created_at = :createdAt AND br.id > :id)
+        )
+        ORDER BY br.urgency_level DESC, br.created_at ASC, br.id ASC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<BloodRequest> findActiveRequestsAfter(@Param("urgencyRank") int urgencyRank,
+                                              @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") Long id,
+                                              @Param("limit") int limit);
+    
+    // Mise à jour atomique des compteurs de réponses (une seule instruction UPDATE par transition)
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE BloodRequest br
+        SET br.responseCount = br.responseCount + :responseDelta,
+            br.pendingCount = br.pendingCount + :pendingDelta,
+            br.acceptedCount = br.acceptedCount + :acceptedDelta,
+            br.updatedAt = LOCAL DATETIME
+        WHERE br.id = :requestId
+        """)
+    int adjustResponseCounters(@Param("requestId") Long requestId,
+                               @Param("responseDelta") int responseDelta,
+                               @Param("pendingDelta") int pendingDelta,
+                               @Param("acceptedDelta") int acceptedDelta);
+    
+    // Recalcule les compteurs à partir des réponses et ne modifie que les demandes qui ont dérivé
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "blood_requests"))
+    @Query(value = """
+        UPDATE blood_requests br
+        LEFT JOIN (
+            SELECT brr.blood_request_id,
+                   COUNT(*) AS response_count,
+                   SUM(CASE WHEN brr.status = 'PENDING' THEN 1 ELSE 0 END) AS pending_count,
+                   SUM(CASE WHEN brr.status = 'ACCEPTED' THEN 1 ELSE 0 END) AS accepted_count
+            FROM blood_request_responses brr
+            GROUP BY brr.blood_request_id
+        ) counts ON counts.blood_request_id = br.id
+        SET br.response_count = COALESCE(counts.response_count, 0),
+            br.pending_count = COALESCE(counts.pending_count, 0),
+            br.accepted_count = COALESCE(counts.accepted_count, 0),
+            br.updated_at = NOW(6)
+        WHERE br.response_count <> COALESCE(counts.response_count, 0)
+           OR br.pending_count <> COALESCE(counts.pending_count, 0)
+           OR br.accepted_count <> COALESCE(counts.accepted_count, 0)
+        """, nativeQuery = true)
+    int reconcileResponseCounters();
+    
     @Query("SELECT COUNT(brr) FROM BloodRequestResponse brr WHERE brr.bloodRequest.id = :requestId")
     Long countResponsesByRequestId(@Param("requestId") Long requestId);
     
     @Query("SELECT COUNT(brr) FROM BloodRequestResponse brr WHERE brr.bloodRequest.id = :requestId AND brr.status = :status")
     Long countResponsesByRequestIdAndStatus(@Param("requestId") Long requestId, 
                                            @Param("status") String status);
+    
+    @Query(SUMMARY_SELECT)
+    List<BloodRequestSummary> findAllSummaries();
+    
+    @Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(br) FROM BloodRequest br")
+    Page<BloodRequestSummary> findSummaryPage(Pageable pageable);
+    
+    // Sans requête COUNT : une ligne de plus est lue pour savoir s'il existe une page suivante
+    @Query(SUMMARY_SELECT)
+    Slice<BloodRequestSummary> findSummarySlice(Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE h.id = :hospitalUserId")
+    List<BloodRequestSummary> findSummariesByHospitalUserId(@Param("hospitalUserId") Long hospitalUserId);
+    
+    // Export : lignes lues par lots de EXPORT_FETCH_SIZE au lieu de charger tout le résultat
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SUMMARY_SELECT + "WHERE h.id = :hospitalUserId ORDER BY br.id")
+    Stream<BloodRequestSummary> streamSummariesByHospitalUserId(@Param("hospitalUserId") Long hospitalUserId);
+    
+    @Query(SUMMARY_SELECT + "WHERE h.id = :hospitalUserId AND br.status = :status")
+    List<BloodRequestSummary> findSummariesByHospitalUserIdAndStatus(@Param("hospitalUserId") Long hospitalUserId,
+                                                                     @Param("status") RequestStatus status);
+    
+    @Query(SUMMARY_SELECT + "WHERE br.bloodType = :bloodType AND br.status = :status")
+    List<BloodRequestSummary> findSummariesByBloodTypeAndStatus(@Param("bloodType") BloodType bloodType,
+                                                                @Param("status") RequestStatus status);
+    
+    @Query(SUMMARY_SELECT + "WHERE br.urgencyLevel = :urgencyLevel AND br.status = :status")
+    List<BloodRequestSummary> findSummariesByUrgencyLevelAndStatus(@Param("urgencyLevel") UrgencyLevel urgencyLevel,
+                                                                   @Param("status") RequestStatus status);
+    
+    @Query(SUMMARY_SELECT + "WHERE br.status = 'ACTIVE' ORDER BY br.urgencyLevel DESC, br.createdAt ASC")
+    List<BloodRequestSummary> findActiveSummariesOrderedByUrgency();
+    
+    // Versions pour les requêtes conditionnelles : une ligne d'agrégat, nombre à 0 si rien ne correspond.
+    // Les réponses affichent le nom de l'utilisateur hôpital : sa date de modification fait partie de la version
+    @Query("SELECT new com.blooddonation.projection.BloodRequestVersion(COUNT(br), MAX(br.updatedAt), MAX(h.updatedAt)) FROM BloodRequest br JOIN br.hospitalUser h WHERE br.id = :requestId")
+    BloodRequestVersion findVersionById(@Param("requestId") Long requestId);
+    
+    @Query("SELECT new com.blooddonation.projection.BloodRequestVersion(COUNT(br), MAX(br.updatedAt), MAX(h.updatedAt)) FROM BloodRequest br JOIN br.hospitalUser h WHERE h.id = :hospitalUserId")
+    BloodRequestVersion findVersionByHospitalUserId(@Param("hospitalUserId") Long hospitalUserId);
+    
+    @Query(SUMMARY_SELECT + "WHERE br.status = 'ACTIVE' AND br.bloodType IN :bloodTypes ORDER BY br.urgencyLevel DESC, br.createdAt ASC")
+    List<BloodRequestSummary> findActiveSummariesForBloodTypes(@Param("bloodTypes") Collection<BloodType> bloodTypes);
+    
+    @Query(SUMMARY_SELECT + "WHERE br.id IN :ids")
+    List<BloodRequestSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -1,36 +1,48 @@
 package com.blooddonation.repository;
 
 import com.blooddonation.entity.BloodRequestResponse;
-import com.blooddonation.enums.ResponseStatus;
+import com.blooddonation.projection.BloodRequestResponseSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BloodRequestResponseRepository extends JpaRepository<BloodRequestResponse, Long> {
     
+    String SUMMARY_SELECT = """
+        SELECT new com.blooddonation.projection.BloodRequestResponseSummary(
+            brr.id, brr.status, brr.message, brr.responseDate, brr.createdAt, brr.updatedAt,
+            br.id, br.description, br.hospitalName,
+            d.id, d.firstName, d.lastName, d.email, d.phoneNumber)
+        FROM BloodRequestResponse brr JOIN brr.bloodRequest br JOIN brr.donorUser d
+        """;
+    
+    // Les listes chargent la demande et le donneur dans la même requête (jointures),
+    // le mapper y accédant pour chaque ligne
+    @EntityGraph(attributePaths = {"bloodRequest", "donorUser"})
     List<BloodRequestResponse> findByBloodRequestId(Long bloodRequestId);
     
+    @EntityGraph(attributePaths = {"bloodRequest", "donorUser"})
     List<BloodRequestResponse> findByDonorUserId(Long donorUserId);
     
-    List<BloodRequestResponse> findByStatus(ResponseStatus status);
-    
-    @Query("SELECT brr FROM BloodRequestResponse brr WHERE brr.bloodRequest.id = :requestId AND brr.status = :status")
-    List<BloodRequestResponse> findByBloodRequestIdAndStatus(@Param("requestId") Long requestId, 
-                                                            @Param("status") ResponseStatus status);
-    
-    @Query("SELECT brr FROM BloodRequestResponse brr WHERE brr.donorUser.id = :donorUserId AND brr.status = :status")
-    List<BloodRequestResponse> findByDonorUserIdAndStatus(@Param("donorUserId") Long donorUserId, 
-                                                         @Param("status") ResponseStatus status);
-    
     @Query("SELECT brr FROM BloodRequestResponse brr WHERE brr.bloodRequest.id = :requestId AND brr.donorUser.id = :donorUserId")
     Optional<BloodRequestResponse> findByBloodRequestIdAndDonorUserId(@Param("requestId") Long requestId, 
                                                                      @Param("donorUserId") Long donorUserId);
     
-    @Query("SELECT brr FROM BloodRequestResponse brr WHERE brr.bloodRequest.hospitalUser.id = :hospitalUserId")
-    List<BloodRequestResponse> findResponsesForHospitalUser(@Param("hospitalUserId") Long hospitalUserId);
+    // Export : lignes lues par lots au lieu de charger tout le résultat
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = BloodRequestRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SUMMARY_SELECT + "WHERE br.hospitalUser.id = :hospitalUserId ORDER BY brr.id")
+    Stream<BloodRequestResponseSummary> streamSummariesForHospitalUser(@Param("hospitalUserId") Long hospitalUserId);
 }
\ No newline at end of file
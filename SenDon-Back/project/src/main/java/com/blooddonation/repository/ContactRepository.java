@@ -3,6 +3,7 @@ package com.blooddonation.repository;
 import com.blooddonation.entity.Contact;
 import com.blooddonation.entity.User;
 import com.blooddonation.enums.BloodType;
+import com.blooddonation.projection.ContactSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,6 +14,14 @@ import java.util.List;
 @Repository
 public interface ContactRepository extends JpaRepository<Contact, Long> {
     
+    // Listes en lecture seule : seules les colonnes de ContactResponseDto sont lues, sans entité managée
+    String SUMMARY_SELECT = """
+        SELECT new com.blooddonation.projection.ContactSummary(
+            c.id, c.firstName, c.lastName, c.email, c.phoneNumber, c.birthDate, c.bloodType,
+            c.relationship, c.address, c.city, c.postalCode, c.notes, c.createdAt, c.updatedAt)
+        FROM Contact c
+        """;
+    
     List<Contact> findByUser(User user);
     
     List<Contact> findByUserId(Long userId);
@@ -28,4 +37,13 @@ public interface ContactRepository extends JpaRepository<Contact, Long> {
     
     @Query("SELECT c FROM Contact c WHERE c.user.id = :userId AND c.bloodType = (SELECT u.bloodType FROM User u WHERE u.id = :userId)")
     List<Contact> findContactsWithSameBloodTypeAsUserById(@Param("userId") Long userId);
+    
+    @Query(SUMMARY_SELECT + "WHERE c.user.id = :userId")
+    List<ContactSummary> findSummariesByUserId(@Param("userId") Long userId);
+    
+    @Query(SUMMARY_SELECT + "WHERE c.user.id = :userId AND c.bloodType = :bloodType")
+    List<ContactSummary> findSummariesByUserIdAndBloodType(@Param("userId") Long userId, @Param("bloodType") BloodType bloodType);
+    
+    @Query(SUMMARY_SELECT + "WHERE c.user.id = :userId AND c.bloodType = (SELECT u.bloodType FROM User u WHERE u.id = :userId)")
+    List<ContactSummary> findSummariesWithSameBloodTypeAsUserById(@Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.blooddonation.repository;
+
+import com.blooddonation.entity.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+    
+    List<TokenRevocation> findByTokensValidAfterAfter(Instant limit);
+    
+    @Modifying
+    @Query("DELETE FROM TokenRevocation tr WHERE tr.tokensValidAfter < :limit")
+    int deleteExpired(@Param("limit") Instant limit);
+}
@@ -2,6 +2,10 @@ package com.blooddonation.repository;
 
 import com.blooddonation.entity.User;
 import com.blooddonation.enums.BloodType;
+import com.blooddonation.projection.UserSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,6 +17,15 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     
+    // Listes en lecture seule : seules les colonnes de UserResponseDto sont lues, sans entité managée
+    String SUMMARY_SELECT = """
+        SELECT new com.blooddonation.projection.UserSummary(
+            u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.birthDate, u.bloodType, u.role,
+            u.address, u.city, u.postalCode, u.latitude, u.longitude, u.hospitalName, u.licenseNumber,
+            u.createdAt, u.updatedAt)
+        FROM User u
+        """;
+    
     Optional<User> findByEmail(String email);
     
     boolean existsByEmail(String email);
@@ -24,4 +37,24 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     @Query("SELECT u FROM User u WHERE u.city = :city")
     List<User> findByCity(@Param("city") String city);
+    
+    // Donneurs géolocalisés, chargés dans l'index de DonorMatchingService
+    @Query("SELECT u FROM User u WHERE u.role = com.blooddonation.enums.UserRole.USER AND u.latitude IS NOT NULL AND u.longitude IS NOT NULL")
+    List<User> findDonorsWithLocation();
+    
+    @Query(SUMMARY_SELECT)
+    List<UserSummary> findAllSummaries();
+    
+    @Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserSummary> findSummaryPage(Pageable pageable);
+    
+    // Sans requête COUNT : une ligne de plus est lue pour savoir s'il existe une page suivante
+    @Query(SUMMARY_SELECT)
+    Slice<UserSummary> findSummarySlice(Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE u.bloodType = :bloodType")
+    List<UserSummary> findSummariesByBloodType(@Param("bloodType") BloodType bloodType);
+    
+    @Query(SUMMARY_SELECT + "WHERE u.bloodType = :bloodType AND u.city = :city")
+    List<UserSummary> findSummariesByBloodTypeAndCity(@Param("bloodType") BloodType bloodType, @Param("city") String city);
 }
\ No newline at end of file
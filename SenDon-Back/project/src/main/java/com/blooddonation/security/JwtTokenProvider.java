@@ -1,25 +1,48 @@
 package com.blooddonation.security;
 
+import com.blooddonation.enums.UserRole;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 public class JwtTokenProvider {
     
+    private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
+    
+    // Claims permettant d'authentifier la requête sans relire l'utilisateur en base
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    
     @Value("${jwt.secret}")
     private String jwtSecret;
     
     @Value("${jwt.expiration}")
     private int jwtExpirationInMs;
     
+    // Construits une seule fois : la clé et le parseur sont immuables et partagés entre les requêtes
+    private SecretKey signingKey;
+    
+    private JwtParser parser;
+    
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+    
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return signingKey;
     }
 
 
@@ -38,52 +61,36 @@ public class JwtTokenProvider {
 
 
 
-    public String generateToken(Authentication authentication) {
-        String username = authentication.getName();
+    public String generateToken(Long userId, String email, UserRole role) {
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationInMs);
 
         try {
             return Jwts.builder()
-                    .setSubject(username)
+                    .setSubject(email)
+                    .claim(USER_ID_CLAIM, userId)
+                    .claim(ROLE_CLAIM, role.name())
                     .setIssuedAt(new Date())
                     .setExpiration(expiryDate)
                     .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                     .compact();
         } catch (Exception e) {
-            e.printStackTrace(); // tu verras enfin l'erreur si ça échoue
+            logger.error("Erreur lors de la génération du token JWT", e);
             throw new RuntimeException("Erreur lors de la génération du token JWT", e);
         }
     }
 
 
-    public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.getSubject();
-    }
-    
-    public boolean validateToken(String authToken) {
+    // Vérifie la signature et l'expiration une seule fois et renvoie les claims du token valide
+    public Optional<Claims> parseAndValidate(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
-        } catch (SecurityException ex) {
-            System.err.println("Signature JWT invalide");
-        } catch (MalformedJwtException ex) {
-            System.err.println("Token JWT invalide");
+            return Optional.of(parser.parseClaimsJws(token).getBody());
         } catch (ExpiredJwtException ex) {
-            System.err.println("Token JWT expiré");
-        } catch (UnsupportedJwtException ex) {
-            System.err.println("Token JWT non supporté");
+            logger.debug("Token JWT expiré");
+        } catch (JwtException ex) {
+            logger.warn("Token JWT invalide: {}", ex.getMessage());
         } catch (IllegalArgumentException ex) {
-            System.err.println("JWT claims string est vide");
+            logger.warn("JWT claims string est vide");
         }
-        return false;
+        return Optional.empty();
     }
 }
\ No newline at end of file
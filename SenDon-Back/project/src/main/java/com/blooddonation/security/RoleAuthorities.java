@@ -0,0 +1,33 @@
+package com.blooddonation.security;
+
+import com.blooddonation.enums.UserRole;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Autorités Spring Security accordées à chaque rôle, partagées par l'authentification
+ * en base (login) et par le filtre JWT qui les reconstruit depuis le rôle du token.
+ */
+public final class RoleAuthorities {
+    
+    private static final Map<UserRole, List<GrantedAuthority>> AUTHORITIES = new EnumMap<>(UserRole.class);
+    
+    static {
+        AUTHORITIES.put(UserRole.USER, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        // HOSPITAL a tous les privilèges (ADMIN + HOSPITAL + USER)
+        AUTHORITIES.put(UserRole.HOSPITAL, List.of(
+                new SimpleGrantedAuthority("ROLE_HOSPITAL"),
+                new SimpleGrantedAuthority("ROLE_ADMIN"),
+                new SimpleGrantedAuthority("ROLE_USER")));
+    }
+    
+    private RoleAuthorities() {}
+    
+    public static List<GrantedAuthority> of(UserRole role) {
+        return AUTHORITIES.getOrDefault(role, List.of());
+    }
+}
@@ -0,0 +1,189 @@
+package com.blooddonation.service;
+
+import com.blooddonation.dto.BloodRequestResponseDto;
+import com.blooddonation.dto.NearbyIndexConsistencyDto;
+import com.blooddonation.entity.BloodRequest;
+import com.blooddonation.enums.BloodType;
+import com.blooddonation.enums.RequestStatus;
+import com.blooddonation.enums.UrgencyLevel;
+import com.blooddonation.mapper.BloodRequestMapper;
+import com.blooddonation.repository.BloodRequestRepository;
+import com.blooddonation.util.GeoUtils;
+import com.blooddonation.util.TransactionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Index en mémoire des demandes de sang actives, réparti dans la grille de GeoUtils.
+ * Les écritures sont appliquées après le commit ; les lectures ne prennent aucun verrou.
+ */
+@Component
+public class ActiveBloodRequestIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ActiveBloodRequestIndex.class);
+    
+    // Même ordre que la requête SQL : urgency_level est une colonne ENUM triée sur le rang, c'est-à-dire l'ordre
+    // de UrgencyLevel (voir FeedCursor), et non sur le texte ; l'id départage les égalités
+    private static final Comparator<Entry> FEED_ORDER = Comparator
+            .comparing(Entry::urgency, Comparator.reverseOrder())
+            .thenComparing(Entry::createdAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingLong(Entry::id);
+    
+    @Autowired
+    private BloodRequestRepository bloodRequestRepository;
+    
+    @Autowired
+    private BloodRequestMapper bloodRequestMapper;
+    
+    private volatile Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    
+    private volatile Map<Integer, Map<Long, Entry>> cells = new ConcurrentHashMap<>();
+    
+    private volatile boolean ready = false;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        List<BloodRequest> activeRequests = bloodRequestRepository.findAllActiveRequestsOrderedByUrgency();
+        
+        Map<Long, Entry> newEntries = new ConcurrentHashMap<>();
+        Map<Integer, Map<Long, Entry>> newCells = new ConcurrentHashMap<>();
+        for (BloodRequest request : activeRequests) {
+            Entry entry = Entry.of(bloodRequestMapper.toResponseDto(request));
+            newEntries.put(entry.id(), entry);
+            newCells.computeIfAbsent(entry.cell(), cell -> new ConcurrentHashMap<>()).put(entry.id(), entry);
+        }
+        
+        entries = newEntries;
+        cells = newCells;
+        ready = true;
+        logger.info("Index des demandes actives reconstruit: {} demandes", newEntries.size());
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    // Enregistre l'état de la demande ; une demande non active est retirée de l'index
+    public void put(BloodRequestResponseDto dto) {
+        Entry entry = dto.getStatus() == RequestStatus.ACTIVE ? Entry.of(dto) : null;
+        TransactionUtils.afterCommit(() -> apply(dto.getId(), entry));
+    }
+    
+    // À appeler dans la transaction, le mapping pouvant charger l'hôpital de la demande
+    public void refresh(BloodRequest request) {
+        put(bloodRequestMapper.toResponseDto(request));
+    }
+    
+    public void remove(Long requestId) {
+        TransactionUtils.afterCommit(() -> apply(requestId, null));
+    }
+    
+    public List<BloodRequestResponseDto> findNearby(double latitude, double longitude, BloodType bloodType) {
+        return findNearby(latitude, longitude, EnumSet.of(bloodType));
+    }
+    
+    public List<BloodRequestResponseDto> findNearby(double latitude, double longitude, Set<BloodType> bloodTypes) {
+        return findNearbyEntries(latitude, longitude, bloodTypes).stream()
+                .map(Entry::dto)
+                .collect(Collectors.toList());
+    }
+    
+    // Compare le résultat de l'index avec la requête SQL de référence
+    @Transactional(readOnly = true)
+    public NearbyIndexConsistencyDto checkConsistency(double latitude, double longitude, BloodType bloodType) {
+        Set<Long> fromIndex = findNearbyEntries(latitude, longitude, EnumSet.of(bloodType)).stream()
+                .map(Entry::id)
+                .collect(Collectors.toSet());
+        Set<Long> fromDatabase = bloodRequestRepository
+                .findNearbyActiveRequests(latitude, longitude, List.of(bloodType.name()), null, null, null, Integer.MAX_VALUE)
+                .stream()
+                .map(BloodRequest::getId)
+                .collect(Collectors.toSet());
+        
+        List<Long> missingFromIndex = fromDatabase.stream()
+                .filter(id -> !fromIndex.contains(id))
+                .sorted()
+                .collect(Collectors.toList());
+        List<Long> unexpectedInIndex = fromIndex.stream()
+                .filter(id -> !fromDatabase.contains(id))
+                .sorted()
+                .collect(Collectors.toList());
+        
+        NearbyIndexConsistencyDto result = new NearbyIndexConsistencyDto(
+                fromIndex.size(), fromDatabase.size(), missingFromIndex, unexpectedInIndex);
+        if (!result.isConsistent()) {
+            logger.warn("Index des demandes actives incohérent: manquantes={}, en trop={}", missingFromIndex, unexpectedInIndex);
+        }
+        return result;
+    }
+    
+    private List<Entry> findNearbyEntries(double latitude, double longitude, Set<BloodType> bloodTypes) {
+        List<Entry> matches = new ArrayList<>();
+        List<Integer> nearbyCells = GeoUtils.cellsWithin(latitude, longitude, GeoUtils.MAX_SEARCH_RADIUS_KM);
+        if (nearbyCells == null) {
+            collectMatches(entries.values(), latitude, longitude, bloodTypes, matches);
+        } else {
+            Map<Integer, Map<Long, Entry>> currentCells = cells;
+            for (Integer cell : nearbyCells) {
+                Map<Long, Entry> cellEntries = currentCells.get(cell);
+                if (cellEntries != null) {
+                    collectMatches(cellEntries.values(), latitude, longitude, bloodTypes, matches);
+                }
+            }
+        }
+        matches.sort(FEED_ORDER);
+        return matches;
+    }
+    
+    private void collectMatches(Collection<Entry> candidates, double latitude, double longitude,
+                                Set<BloodType> bloodTypes, List<Entry> matches) {
+        for (Entry entry : candidates) {
+            if (bloodTypes.contains(entry.bloodType())
+                    && GeoUtils.distanceKm(latitude, longitude, entry.latitude(), entry.longitude()) <= entry.searchRadiusKm()) {
+                matches.add(entry);
+            }
+        }
+    }
+    
+    private synchronized void apply(Long requestId, Entry entry) {
+        Entry previous = entry != null ? entries.put(requestId, entry) : entries.remove(requestId);
+        if (previous != null) {
+            Map<Long, Entry> previousCell = cells.get(previous.cell());
+            if (previousCell != null) {
+                previousCell.remove(requestId);
+            }
+        }
+        if (entry != null) {
+            cells.computeIfAbsent(entry.cell(), cell -> new ConcurrentHashMap<>()).put(requestId, entry);
+        }
+    }
+    
+    private record Entry(long id, BloodType bloodType, UrgencyLevel urgency, LocalDateTime createdAt,
+                         double latitude, double longitude, int searchRadiusKm, int cell,
+                         BloodRequestResponseDto dto) {
+        
+        static Entry of(BloodRequestResponseDto dto) {
+            double latitude = dto.getLatitude();
+            double longitude = dto.getLongitude();
+            return new Entry(dto.getId(), dto.getBloodType(), dto.getUrgencyLevel(), dto.getCreatedAt(),
+                    latitude, longitude, dto.getSearchRadiusKm(), GeoUtils.cellOf(latitude, longitude), dto);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.blooddonation.service;
+
+import com.blooddonation.dto.BloodRequestResponseDto;
+import com.blooddonation.event.BloodRequestChangedEvent;
+import com.blooddonation.mapper.BloodRequestMapper;
+import com.blooddonation.repository.BloodRequestRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Flux des demandes actives des donneurs, gardé sérialisé en JSON.
+ * Le flux ne change qu'avec les écritures des hôpitaux (demandes, nom de l'hôpital) et les réponses des donneurs :
+ * chaque BloodRequestChangedEvent commité l'invalide, et il est reconstruit à la lecture suivante.
+ * Les événements ne sont publiés que sur l'instance qui a écrit : la durée de vie du flux borne
+ * le retard des autres instances.
+ */
+@Component
+public class ActiveFeedCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ActiveFeedCache.class);
+    
+    @Autowired
+    private BloodRequestRepository bloodRequestRepository;
+    
+    @Autowired
+    private BloodRequestMapper bloodRequestMapper;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${blood-requests.active-feed.max-age:30s}")
+    private Duration maxAge;
+    
+    // Incrémentée à chaque modification commitée ; le flux en cache porte la version lue avant son chargement
+    private final AtomicLong version = new AtomicLong();
+    
+    private volatile Feed feed;
+    
+    public Feed getActiveFeed() {
+        Feed current = feed;
+        if (isFresh(current, version.get())) {
+            return current;
+        }
+        return reload();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBloodRequestChanged(BloodRequestChangedEvent event) {
+        version.incrementAndGet();
+    }
+    
+    // Un seul rechargement à la fois : les donneurs qui attendent reçoivent le flux qui vient d'être construit
+    private synchronized Feed reload() {
+        long loadedVersion = version.get();
+        Feed current = feed;
+        if (isFresh(current, loadedVersion)) {
+            return current;
+        }
+        
+        // Une modification commitée pendant le chargement change la version : le flux sera rechargé au prochain appel
+        List<BloodRequestResponseDto> requests = bloodRequestRepository.findActiveSummariesOrderedByUrgency().stream()
+                .map(bloodRequestMapper::toResponseDto)
+                .collect(Collectors.toList());
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(requests);
+            // ETag calculé sur le contenu, une fois par reconstruction : il reste valable après un redémarrage
+            // et d'une instance à l'autre, contrairement au numéro de version
+            Feed rebuilt = new Feed(loadedVersion, System.nanoTime(), DigestUtils.md5DigestAsHex(json), json);
+            feed = rebuilt;
+            logger.debug("Flux des demandes actives reconstruit: {} demandes, {} octets", requests.size(), json.length);
+            return rebuilt;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation du flux des demandes actives impossible", e);
+        }
+    }
+    
+    private boolean isFresh(Feed current, long currentVersion) {
+        return current != null && current.version() == currentVersion
+                && System.nanoTime() - current.loadedAtNanos() < maxAge.toNanos();
+    }
+    
+    public record Feed(long version, long loadedAtNanos, String etag, byte[] json) {}
+}
@@ -0,0 +1,263 @@
+package com.blooddonation.service;
+
+import com.blooddonation.dto.BloodRequestResponseDto;
+import com.blooddonation.enums.BloodRequestChangeType;
+import com.blooddonation.enums.BloodType;
+import com.blooddonation.enums.RequestStatus;
+import com.blooddonation.event.BloodRequestChangedEvent;
+import com.blooddonation.mapper.BloodRequestMapper;
+import com.blooddonation.projection.BloodRequestSummary;
+import com.blooddonation.repository.BloodRequestRepository;
+import com.blooddonation.util.BloodTypeCompatibility;
+import com.blooddonation.util.GeoUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Flux Server-Sent Events des demandes actives : créations, modifications, annulations, complétions,
+ * expirations et suppressions, filtrées par groupe sanguin compatible et par zone.
+ * Un abonné inactif ne tient aucun thread (requête asynchrone du conteneur). Chaque événement
+ * commité est lu une fois en base et sérialisé une fois par un thread dédié, qui le dépose dans
+ * la file bornée de chaque abonné concerné sans jamais écrire sur les connexions : les envois
+ * (bloquants) sont faits par un pool séparé, et un abonné dont la file est pleine est déconnecté.
+ */
+@Service
+public class ActiveRequestStreamService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ActiveRequestStreamService.class);
+    
+    private static final int DRAIN_BATCH_SIZE = 16;
+    
+    @Autowired
+    private BloodRequestRepository bloodRequestRepository;
+    
+    @Autowired
+    private BloodRequestMapper bloodRequestMapper;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${blood-requests.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+    
+    @Value("${blood-requests.stream.max-subscribers:20000}")
+    private int maxSubscribers;
+    
+    @Value("${blood-requests.stream.queue-capacity:1000}")
+    private int queueCapacity;
+    
+    @Value("${blood-requests.stream.sender-threads:8}")
+    private int senderThreads;
+    
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    
+    // Les transactions des hôpitaux et des donneurs n'attendent jamais l'envoi aux abonnés
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "active-requests-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Écritures sur les connexions ; un client lent n'immobilise qu'un de ces threads, jamais la diffusion
+    private ExecutorService senders;
+    
+    @PostConstruct
+    public void startSenders() {
+        AtomicInteger threadCount = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "active-requests-stream-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public SseEmitter subscribe(BloodType donorBloodType, Double latitude, Double longitude) {
+        if ((latitude == null) != (longitude == null)) {
+            throw new IllegalArgumentException("La latitude et la longitude doivent être fournies ensemble");
+        }
+        if (subscriptions.size() >= maxSubscribers) {
+            throw new IllegalStateException("Nombre maximal d'abonnés au flux des demandes atteint, réessayez plus tard");
+        }
+        
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscription subscription = new Subscription(emitter,
+                donorBloodType != null ? BloodTypeCompatibility.compatibleRecipients(donorBloodType) : null,
+                latitude, longitude, queueCapacity);
+        emitter.onCompletion(() -> remove(subscription));
+        // Fin normale du flux à l'expiration, le client se reconnecte (EventSource le fait seul)
+        emitter.onTimeout(() -> {
+            remove(subscription);
+            emitter.complete();
+        });
+        emitter.onError(error -> remove(subscription));
+        subscriptions.add(subscription);
+        
+        // Premier envoi : les en-têtes partent tout de suite, le client sait que l'abonnement est actif
+        enqueue(subscription, SseEmitter.event().comment("connected"));
+        return emitter;
+    }
+    
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBloodRequestChanged(BloodRequestChangedEvent event) {
+        if (subscriptions.isEmpty() || event.requestIds().isEmpty()) {
+            return;
+        }
+        dispatcher.execute(() -> broadcast(event));
+    }
+    
+    // Commentaire périodique : garde les connexions ouvertes derrière les proxys et détecte les clients partis.
+    // Déposé dans les files depuis le thread du planificateur, comme un événement
+    @Scheduled(fixedDelayString = "${blood-requests.stream.heartbeat-ms:30000}")
+    public void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            enqueue(subscription, SseEmitter.event().comment("ping"));
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        for (Subscription subscription : subscriptions) {
+            subscription.emitter().complete();
+        }
+        subscriptions.clear();
+    }
+    
+    private void broadcast(BloodRequestChangedEvent event) {
+        try {
+            String eventName = event.type().name().toLowerCase();
+            // Demandes supprimées avec leur hôpital : plus rien à lire en base, seul l'id est envoyé, à tous les abonnés
+            if (event.type() == BloodRequestChangeType.DELETED) {
+                for (Long requestId : event.requestIds()) {
+                    String json = objectMapper.writeValueAsString(Map.of("id", requestId));
+                    for (Subscription subscription : subscriptions) {
+                        enqueue(subscription, SseEmitter.event().name(eventName).data(json, MediaType.APPLICATION_JSON));
+                    }
+                }
+                return;
+            }
+            List<BloodRequestSummary> requests = bloodRequestRepository.findSummariesByIdIn(event.requestIds());
+            for (BloodRequestSummary request : requests) {
+                // Réponse tardive sur une demande déjà close : le flux des demandes actives n'est pas concerné
+                boolean upsert = event.type() == BloodRequestChangeType.CREATED || event.type() == BloodRequestChangeType.UPDATED;
+                if (upsert && request.status() != RequestStatus.ACTIVE) {
+                    continue;
+                }
+                
+                BloodRequestResponseDto dto = bloodRequestMapper.toResponseDto(request);
+                String json = objectMapper.writeValueAsString(dto);
+                for (Subscription subscription : subscriptions) {
+                    if (subscription.matches(dto)) {
+                        enqueue(subscription, SseEmitter.event().name(eventName).data(json, MediaType.APPLICATION_JSON));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Erreur lors de la diffusion de l'événement {} pour les demandes {}", event.type(), event.requestIds(), e);
+        }
+    }
+    
+    // Sans attente : un abonné qui ne suit pas (file pleine) est déconnecté, il se reconnectera.
+    // complete() attend la fin d'un envoi en cours sur le même émetteur : il est appelé depuis un thread d'envoi
+    private void enqueue(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        if (!subscription.queue().offer(event)) {
+            if (subscriptions.remove(subscription)) {
+                logger.debug("Abonné au flux des demandes déconnecté : {} événements en attente", subscription.queue().size());
+                subscription.queue().clear();
+                executeQuietly(() -> subscription.emitter().complete());
+            }
+            return;
+        }
+        scheduleDrain(subscription);
+    }
+    
+    // Un seul envoi en cours par abonné : l'ordre des événements est conservé
+    private void scheduleDrain(Subscription subscription) {
+        if (subscription.draining().compareAndSet(false, true) && !executeQuietly(() -> drain(subscription))) {
+            subscription.draining().set(false);
+        }
+    }
+    
+    // Refus du pool à l'arrêt de l'application : plus rien à envoyer
+    private boolean executeQuietly(Runnable task) {
+        try {
+            senders.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+    
+    // Vide la file par lots, pour que les autres abonnés aient leur tour sur les threads d'envoi
+    private void drain(Subscription subscription) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            int sent = 0;
+            while (sent < DRAIN_BATCH_SIZE && (event = subscription.queue().poll()) != null) {
+                subscription.emitter().send(event);
+                sent++;
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client parti ou flux déjà terminé : le conteneur se charge de clore la requête
+            remove(subscription);
+            logger.debug("Abonné au flux des demandes retiré: {}", e.getMessage());
+            return;
+        } finally {
+            subscription.draining().set(false);
+        }
+        // Événements déposés pendant l'envoi ou lot incomplet
+        if (!subscription.queue().isEmpty()) {
+            scheduleDrain(subscription);
+        }
+    }
+    
+    private void remove(Subscription subscription) {
+        subscriptions.remove(subscription);
+        subscription.queue().clear();
+    }
+    
+    private record Subscription(SseEmitter emitter, Set<BloodType> bloodTypes, Double latitude, Double longitude,
+                                BlockingQueue<SseEmitter.SseEventBuilder> queue, AtomicBoolean draining) {
+        
+        Subscription(SseEmitter emitter, Set<BloodType> bloodTypes, Double latitude, Double longitude, int queueCapacity) {
+            this(emitter, bloodTypes, latitude, longitude, new LinkedBlockingQueue<>(queueCapacity), new AtomicBoolean());
+        }
+        
+        // Même règle que la recherche des demandes proches : le donneur doit être dans le rayon de la demande
+        boolean matches(BloodRequestResponseDto request) {
+            if (bloodTypes != null && !bloodTypes.contains(request.getBloodType())) {
+                return false;
+            }
+            return latitude == null
+                    || GeoUtils.distanceKm(latitude, longitude, request.getLatitude(), request.getLongitude()) <= request.getSearchRadiusKm();
+        }
+    }
+}
@@ -33,9 +33,9 @@ public class AuthService {
         );
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
 
         UserResponseDto userResponse = userService.getUserByEmail(loginDto.getEmail());
+        String jwt = tokenProvider.generateToken(userResponse.getId(), userResponse.getEmail(), userResponse.getRole());
 
         return new AuthResponseDto(jwt, userResponse);
     }
@@ -44,16 +44,9 @@ public class AuthService {
         // 1. Créer l'utilisateur
         UserResponseDto userResponse = userService.registerUser(registrationDto);
 
-        // 2. Créer l'authentification manuellement (sans passer par AuthenticationManager)
+        // 2. Générer le token JWT (id et rôle inclus), sans repasser par AuthenticationManager
         // car l'utilisateur vient d'être créé et le mot de passe est déjà encodé
-        Authentication authentication = new UsernamePasswordAuthenticationToken(
-                registrationDto.getEmail(),
-                null, // pas besoin du mot de passe pour générer le token
-                java.util.Collections.emptyList() // authorities vides pour l'instant
-        );
-
-        // 3. Générer le token JWT
-        String jwt = tokenProvider.generateToken(authentication);
+        String jwt = tokenProvider.generateToken(userResponse.getId(), userResponse.getEmail(), userResponse.getRole());
 
         return new AuthResponseDto(jwt, userResponse);
     }
@@ -4,19 +4,24 @@ import com.blooddonation.dto.BloodRequestResponseResponseDto;
 import com.blooddonation.entity.BloodRequest;
 import com.blooddonation.entity.BloodRequestResponse;
 import com.blooddonation.entity.User;
+import com.blooddonation.enums.BloodRequestChangeType;
 import com.blooddonation.enums.RequestStatus;
 import com.blooddonation.enums.ResponseStatus;
 import com.blooddonation.enums.UserRole;
+import com.blooddonation.event.BloodRequestChangedEvent;
 import com.blooddonation.exception.BloodRequestNotFoundException;
 import com.blooddonation.exception.UnauthorizedAccessException;
 import com.blooddonation.exception.UserNotFoundException;
+import com.blooddonation.mapper.BloodRequestMapper;
 import com.blooddonation.mapper.BloodRequestResponseMapper;
 import com.blooddonation.repository.BloodRequestRepository;
 import com.blooddonation.repository.BloodRequestResponseRepository;
 import com.blooddonation.repository.UserRepository;
+import com.blooddonation.util.BloodTypeCompatibility;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -43,6 +48,15 @@ public class BloodRequestResponseService {
     @Autowired
     private BloodRequestResponseMapper responseMapper;
     
+    @Autowired
+    private BloodRequestMapper bloodRequestMapper;
+    
+    @Autowired
+    private ActiveBloodRequestIndex activeRequestIndex;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     // Méthodes pour les donneurs
     public BloodRequestResponseResponseDto respondToBloodRequest(Long requestId, Long donorUserId, BloodRequestResponseResponseDto responseDto) {
         try {
@@ -72,12 +86,13 @@ public class BloodRequestResponseService {
             }
             
             // Vérifier la compatibilité du groupe sanguin
-            if (!isBloodTypeCompatible(donorUser.getBloodType(), bloodRequest.getBloodType())) {
+            if (!BloodTypeCompatibility.canDonate(donorUser.getBloodType(), bloodRequest.getBloodType())) {
                 throw new IllegalStateException("Votre groupe sanguin n'est pas compatible avec cette demande");
             }
             
             BloodRequestResponse response = responseMapper.toEntity(responseDto, bloodRequest, donorUser);
             BloodRequestResponse savedResponse = responseRepository.save(response);
+            adjustResponseCounters(bloodRequest, 1, 1, 0);
             
             logger.debug("Réponse créée avec l'ID: {}", savedResponse.getId());
             return responseMapper.toResponseDto(savedResponse);
@@ -124,7 +139,9 @@ public class BloodRequestResponseService {
                 throw new IllegalStateException("Seules les réponses en attente peuvent être annulées");
             }
             
+            // La collection des réponses de la demande n'est pas chargée : la réponse est supprimée directement
             responseRepository.delete(response);
+            adjustResponseCounters(response.getBloodRequest(), -1, -1, 0);
             
         } catch (UnauthorizedAccessException | IllegalStateException e) {
             throw e;
@@ -134,6 +151,16 @@ public class BloodRequestResponseService {
         }
     }
     
+    // Appelé avant la suppression d'un donneur : ses réponses partent avec lui (cascade de User.donorResponses),
+    // les compteurs des demandes concernées sont corrigés dans la même transaction
+    public void onDonorUserDeleted(Long donorUserId) {
+        for (BloodRequestResponse response : responseRepository.findByDonorUserId(donorUserId)) {
+            adjustResponseCounters(response.getBloodRequest(), -1,
+                    response.getStatus() == ResponseStatus.PENDING ? -1 : 0,
+                    response.getStatus() == ResponseStatus.ACCEPTED ? -1 : 0);
+        }
+    }
+    
     // Méthodes pour les hôpitaux
     public List<BloodRequestResponseResponseDto> getResponsesForBloodRequest(Long requestId, Long hospitalUserId) {
         try {
@@ -176,6 +203,7 @@ public class BloodRequestResponseService {
             response.setStatus(ResponseStatus.ACCEPTED);
             response.setResponseDate(LocalDateTime.now());
             responseRepository.save(response);
+            adjustResponseCounters(response.getBloodRequest(), 0, -1, 1);
             
         } catch (UnauthorizedAccessException | IllegalStateException e) {
             throw e;
@@ -203,6 +231,7 @@ public class BloodRequestResponseService {
             response.setStatus(ResponseStatus.DECLINED);
             response.setResponseDate(LocalDateTime.now());
             responseRepository.save(response);
+            adjustResponseCounters(response.getBloodRequest(), 0, -1, 0);
             
         } catch (UnauthorizedAccessException | IllegalStateException e) {
             throw e;
@@ -229,6 +258,7 @@ public class BloodRequestResponseService {
             
             response.setStatus(ResponseStatus.COMPLETED);
             responseRepository.save(response);
+            adjustResponseCounters(response.getBloodRequest(), 0, 0, -1);
             
         } catch (UnauthorizedAccessException | IllegalStateException e) {
             throw e;
@@ -238,40 +268,13 @@ public class BloodRequestResponseService {
         }
     }
     
-    // Méthode utilitaire pour vérifier la compatibilité des groupes sanguins
-    private boolean isBloodTypeCompatible(com.blooddonation.enums.BloodType donorType, com.blooddonation.enums.BloodType requestedType) {
-        // Logique de compatibilité des groupes sanguins
-        switch (requestedType) {
-            case O_NEGATIVE:
-                return donorType == com.blooddonation.enums.BloodType.O_NEGATIVE;
-            case O_POSITIVE:
-                return donorType == com.blooddonation.enums.BloodType.O_NEGATIVE || 
-                       donorType == com.blooddonation.enums.BloodType.O_POSITIVE;
-            case A_NEGATIVE:
-                return donorType == com.blooddonation.enums.BloodType.O_NEGATIVE || 
-                       donorType == com.blooddonation.enums.BloodType.A_NEGATIVE;
-            case A_POSITIVE:
-                return donorType == com.blooddonation.enums.BloodType.O_NEGATIVE || 
-                       donorType == com.blooddonation.enums.BloodType.O_POSITIVE ||
-                       donorType == com.blooddonation.enums.BloodType.A_NEGATIVE || 
-                       donorType == com.blooddonation.enums.BloodType.A_POSITIVE;
-            case B_NEGATIVE:
-                return donorType == com.blooddonation.enums.BloodType.O_NEGATIVE || 
-                       donorType == com.blooddonation.enums.BloodType.B_NEGATIVE;
-            case B_POSITIVE:
-                return donorType == com.blooddonation.enums.BloodType.O_NEGATIVE || 
-                       donorType == com.blooddonation.enums.BloodType.O_POSITIVE ||
-                       donorType == com.blooddonation.enums.BloodType.B_NEGATIVE || 
-                       donorType == com.blooddonation.enums.BloodType.B_POSITIVE;
-            case AB_NEGATIVE:
-                return donorType == com.blooddonation.enums.BloodType.O_NEGATIVE || 
-                       donorType == com.blooddonation.enums.BloodType.A_NEGATIVE ||
-                       donorType == com.blooddonation.enums.BloodType.B_NEGATIVE || 
-                       donorType == com.blooddonation.enums.BloodType.AB_NEGATIVE;
-            case AB_POSITIVE:
-                return true; // AB+ peut recevoir de tous les groupes
-            default:
-                return false;
-        }
+    // Met à jour les compteurs de la demande en une instruction, puis relit la seule ligne de la demande
+    // (projection) pour l'index des demandes actives : l'entité n'est pas rechargée, son rechargement
+    // se propagerait aux réponses chargées
+    private void adjustResponseCounters(BloodRequest bloodRequest, int responseDelta, int pendingDelta, int acceptedDelta) {
+        bloodRequestRepository.adjustResponseCounters(bloodRequest.getId(), responseDelta, pendingDelta, acceptedDelta);
+        bloodRequestRepository.findSummariesByIdIn(List.of(bloodRequest.getId()))
+                .forEach(summary -> activeRequestIndex.put(bloodRequestMapper.toResponseDto(summary)));
+        eventPublisher.publishEvent(BloodRequestChangedEvent.of(BloodRequestChangeType.UPDATED, bloodRequest.getId()));
     }
 }
\ No newline at end of file
@@ -1,28 +1,57 @@
 package com.blooddonation.service;
 
+import com.blooddonation.dto.BloodRequestBatchItemDto;
+import com.blooddonation.dto.BloodRequestChangesDto;
 import com.blooddonation.dto.BloodRequestDto;
 import com.blooddonation.dto.BloodRequestResponseDto;
+import com.blooddonation.dto.CursorPageDto;
+import com.blooddonation.dto.DonorMatchDto;
+import com.blooddonation.dto.NearbyIndexConsistencyDto;
+import com.blooddonation.dto.PageResponseDto;
 import com.blooddonation.entity.BloodRequest;
+import com.blooddonation.entity.BloodRequestChange;
 import com.blooddonation.entity.User;
+import com.blooddonation.enums.BloodRequestChangeType;
 import com.blooddonation.enums.BloodType;
+import com.blooddonation.enums.NearbySearchStrategy;
 import com.blooddonation.enums.RequestStatus;
 import com.blooddonation.enums.UrgencyLevel;
 import com.blooddonation.enums.UserRole;
+import com.blooddonation.event.BloodRequestChangedEvent;
 import com.blooddonation.exception.BloodRequestNotFoundException;
 import com.blooddonation.exception.UnauthorizedAccessException;
 import com.blooddonation.exception.UserNotFoundException;
 import com.blooddonation.mapper.BloodRequestMapper;
+import com.blooddonation.projection.BloodRequestSummary;
+import com.blooddonation.projection.BloodRequestVersion;
+import com.blooddonation.repository.BloodRequestChangeRepository;
 import com.blooddonation.repository.BloodRequestRepository;
 import com.blooddonation.repository.UserRepository;
+import com.blooddonation.util.BloodTypeCompatibility;
+import com.blooddonation.util.FeedCursor;
+import com.blooddonation.util.GeoUtils;
+import com.blooddonation.util.PageRequests;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,15 +60,45 @@ public class BloodRequestService {
     
     private static final Logger logger = LoggerFactory.getLogger(BloodRequestService.class);
     
+    public static final int MAX_PAGE_SIZE = PageRequests.MAX_PAGE_SIZE;
+    
+    public static final int MAX_BATCH_SIZE = 500;
+    
+    // Propriétés acceptées pour le tri de la liste paginée de toutes les demandes
+    private static final Set<String> SORTABLE_PROPERTIES =
+            Set.of("id", "createdAt", "updatedAt", "deadline", "urgencyLevel", "status", "bloodType");
+    
     @Autowired
     private BloodRequestRepository bloodRequestRepository;
     
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private BloodRequestChangeRepository changeRepository;
+    
     @Autowired
     private BloodRequestMapper bloodRequestMapper;
     
+    @Autowired
+    private ActiveBloodRequestIndex activeRequestIndex;
+    
+    @Autowired
+    private DonorMatchingService donorMatchingService;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${blood-requests.nearby.strategy:IN_MEMORY}")
+    private NearbySearchStrategy nearbySearchStrategy;
+    
+    // Durée maximale d'une transaction d'écriture sur les demandes (synchronisation différentielle)
+    @Value("${blood-requests.changes.max-transaction-age:60s}")
+    private Duration maxTransactionAge;
+    
     public BloodRequestResponseDto createBloodRequest(Long hospitalUserId, BloodRequestDto requestDto) {
         try {
             logger.debug("Création d'une demande de sang pour l'utilisateur hôpital: {}", hospitalUserId);
@@ -53,10 +112,14 @@ public class BloodRequestService {
             }
             
             BloodRequest request = bloodRequestMapper.toEntity(requestDto, hospitalUser);
-            BloodRequest savedRequest = bloodRequestRepository.save(request);
+            // Insertion immédiate : l'id vient d'une séquence, les dates de création sont renseignées au flush
+            BloodRequest savedRequest = bloodRequestRepository.saveAndFlush(request);
             
             logger.debug("Demande de sang créée avec l'ID: {}", savedRequest.getId());
-            return bloodRequestMapper.toResponseDto(savedRequest);
+            BloodRequestResponseDto response = bloodRequestMapper.toResponseDto(savedRequest);
+            activeRequestIndex.put(response);
+            eventPublisher.publishEvent(BloodRequestChangedEvent.of(BloodRequestChangeType.CREATED, savedRequest.getId()));
+            return response;
             
         } catch (UserNotFoundException | UnauthorizedAccessException e) {
             throw e;
@@ -66,16 +129,62 @@ public class BloodRequestService {
         }
     }
     
+    // Création groupée : hôpital chargé une fois, demandes valides insérées par lots dans une seule transaction
+    public List<BloodRequestBatchItemDto> createBloodRequests(Long hospitalUserId, List<BloodRequestDto> requestDtos) {
+        if (requestDtos.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Un lot ne peut pas dépasser " + MAX_BATCH_SIZE + " demandes");
+        }
+        
+        User hospitalUser = userRepository.findById(hospitalUserId)
+                .orElseThrow(() -> new UserNotFoundException("Utilisateur hôpital non trouvé avec l'ID : " + hospitalUserId));
+        if (hospitalUser.getRole() != UserRole.HOSPITAL) {
+            throw new UnauthorizedAccessException("Seuls les utilisateurs hôpitaux peuvent créer des demandes de sang");
+        }
+        
+        List<BloodRequestBatchItemDto> results = new ArrayList<>(requestDtos.size());
+        List<BloodRequest> requests = new ArrayList<>();
+        List<Integer> requestIndexes = new ArrayList<>();
+        for (int i = 0; i < requestDtos.size(); i++) {
+            Set<ConstraintViolation<BloodRequestDto>> violations = validator.validate(requestDtos.get(i));
+            if (violations.isEmpty()) {
+                requests.add(bloodRequestMapper.toEntity(requestDtos.get(i), hospitalUser));
+                requestIndexes.add(i);
+                results.add(null);
+            } else {
+                results.add(BloodRequestBatchItemDto.rejected(i, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " : " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.toList())));
+            }
+        }
+        
+        // Un seul flush : les INSERT partent par lots de hibernate.jdbc.batch_size
+        bloodRequestRepository.saveAll(requests);
+        bloodRequestRepository.flush();
+        
+        for (int i = 0; i < requests.size(); i++) {
+            BloodRequestResponseDto response = bloodRequestMapper.toResponseDto(requests.get(i));
+            activeRequestIndex.put(response);
+            results.set(requestIndexes.get(i), BloodRequestBatchItemDto.created(requestIndexes.get(i), response));
+        }
+        if (!requests.isEmpty()) {
+            eventPublisher.publishEvent(new BloodRequestChangedEvent(BloodRequestChangeType.CREATED, requests.stream()
+                    .map(BloodRequest::getId)
+                    .collect(Collectors.toList())));
+        }
+        logger.debug("Lot de demandes pour l'hôpital {} : {} créées, {} rejetées",
+                hospitalUserId, requests.size(), requestDtos.size() - requests.size());
+        return results;
+    }
+    
     public List<BloodRequestResponseDto> getBloodRequestsByHospitalUser(Long hospitalUserId) {
         try {
             if (!userRepository.existsById(hospitalUserId)) {
                 throw new UserNotFoundException("Utilisateur hôpital non trouvé avec l'ID : " + hospitalUserId);
             }
             
-            List<BloodRequest> requests = bloodRequestRepository.findByHospitalUserId(hospitalUserId);
-            return requests.stream()
-                    .map(bloodRequestMapper::toResponseDto)
-                    .collect(Collectors.toList());
+            List<BloodRequestSummary> requests = bloodRequestRepository.findSummariesByHospitalUserId(hospitalUserId);
+            return toSummaryDtos(requests);
                     
         } catch (UserNotFoundException e) {
             throw e;
@@ -91,10 +200,8 @@ public class BloodRequestService {
                 throw new UserNotFoundException("Utilisateur hôpital non trouvé avec l'ID : " + hospitalUserId);
             }
             
-            List<BloodRequest> requests = bloodRequestRepository.findByHospitalUserIdAndStatus(hospitalUserId, RequestStatus.ACTIVE);
-            return requests.stream()
-                    .map(bloodRequestMapper::toResponseDto)
-                    .collect(Collectors.toList());
+            List<BloodRequestSummary> requests = bloodRequestRepository.findSummariesByHospitalUserIdAndStatus(hospitalUserId, RequestStatus.ACTIVE);
+            return toSummaryDtos(requests);
                     
         } catch (UserNotFoundException e) {
             throw e;
@@ -104,6 +211,17 @@ public class BloodRequestService {
         }
     }
     
+    // Versions lues avant le chargement complet, pour répondre 304 sans mapping ni sérialisation
+    @Transactional(readOnly = true)
+    public BloodRequestVersion getBloodRequestVersion(Long requestId) {
+        return bloodRequestRepository.findVersionById(requestId);
+    }
+    
+    @Transactional(readOnly = true)
+    public BloodRequestVersion getHospitalBloodRequestsVersion(Long hospitalUserId) {
+        return bloodRequestRepository.findVersionByHospitalUserId(hospitalUserId);
+    }
+    
     public BloodRequestResponseDto getBloodRequestById(Long requestId) {
         try {
             BloodRequest request = bloodRequestRepository.findById(requestId)
@@ -136,7 +254,10 @@ public class BloodRequestService {
             bloodRequestMapper.updateEntityFromDto(request, requestDto);
             BloodRequest updatedRequest = bloodRequestRepository.save(request);
             
-            return bloodRequestMapper.toResponseDto(updatedRequest);
+            BloodRequestResponseDto response = bloodRequestMapper.toResponseDto(updatedRequest);
+            activeRequestIndex.put(response);
+            eventPublisher.publishEvent(BloodRequestChangedEvent.of(BloodRequestChangeType.UPDATED, requestId));
+            return response;
             
         } catch (BloodRequestNotFoundException | UnauthorizedAccessException | IllegalStateException e) {
             throw e;
@@ -163,6 +284,8 @@ public class BloodRequestService {
             
             request.setStatus(RequestStatus.CANCELLED);
             bloodRequestRepository.save(request);
+            activeRequestIndex.remove(requestId);
+            eventPublisher.publishEvent(BloodRequestChangedEvent.of(BloodRequestChangeType.CANCELLED, requestId));
             
         } catch (BloodRequestNotFoundException | UnauthorizedAccessException | IllegalStateException e) {
             throw e;
@@ -189,6 +312,8 @@ public class BloodRequestService {
             
             request.setStatus(RequestStatus.COMPLETED);
             bloodRequestRepository.save(request);
+            activeRequestIndex.remove(requestId);
+            eventPublisher.publishEvent(BloodRequestChangedEvent.of(BloodRequestChangeType.COMPLETED, requestId));
             
         } catch (BloodRequestNotFoundException | UnauthorizedAccessException | IllegalStateException e) {
             throw e;
@@ -198,57 +323,273 @@ public class BloodRequestService {
         }
     }
 
+    // Les demandes affichent le nom de l'utilisateur hôpital : après son changement,
+    // l'index et les abonnés reçoivent les demandes actives à jour
+    public void onHospitalUserUpdated(Long hospitalUserId) {
+        List<BloodRequestSummary> requests = bloodRequestRepository
+                .findSummariesByHospitalUserIdAndStatus(hospitalUserId, RequestStatus.ACTIVE);
+        if (requests.isEmpty()) {
+            return;
+        }
+        requests.forEach(request -> activeRequestIndex.put(bloodRequestMapper.toResponseDto(request)));
+        eventPublisher.publishEvent(new BloodRequestChangedEvent(BloodRequestChangeType.UPDATED, requests.stream()
+                .map(BloodRequestSummary::id)
+                .collect(Collectors.toList())));
+    }
+    
+    // Appelé avant la suppression d'un utilisateur hôpital : ses demandes partent avec lui
+    // (cascade de User.bloodRequests), l'index et les abonnés doivent les oublier
+    public void onHospitalUserDeleted(Long hospitalUserId) {
+        List<Long> requestIds = bloodRequestRepository.findIdsByHospitalUserId(hospitalUserId);
+        if (requestIds.isEmpty()) {
+            return;
+        }
+        requestIds.forEach(activeRequestIndex::remove);
+        eventPublisher.publishEvent(new BloodRequestChangedEvent(BloodRequestChangeType.DELETED, requestIds));
+    }
+    
+    // Donneurs compatibles à proximité d'une demande, classés par distance
+    public List<DonorMatchDto> getMatchingDonors(Long requestId, Long hospitalUserId, int limit) {
+        BloodRequest request = bloodRequestRepository.findById(requestId)
+                .orElseThrow(() -> new BloodRequestNotFoundException("Demande de sang non trouvée avec l'ID : " + requestId));
+        
+        // Vérifier que l'utilisateur est propriétaire de la demande
+        if (!request.getHospitalUser().getId().equals(hospitalUserId)) {
+            throw new UnauthorizedAccessException("Vous n'êtes pas autorisé à voir les donneurs de cette demande");
+        }
+        
+        return donorMatchingService.findMatchingDonors(request, limit);
+    }
+
     public List<BloodRequestResponseDto> getAllBloodRequests() {
         try {
-            List<BloodRequest> requests = bloodRequestRepository.findAll();
-            return requests.stream()
-                    .map(bloodRequestMapper::toResponseDto)
-                    .collect(Collectors.toList());
+            List<BloodRequestSummary> requests = bloodRequestRepository.findAllSummaries();
+            return toSummaryDtos(requests);
         } catch (Exception e) {
             logger.error("Erreur lors de la récupération de toutes les demandes de sang", e);
             throw new RuntimeException("Erreur lors de la récupération de toutes les demandes de sang: " + e.getMessage(), e);
         }
     }
     
+    public PageResponseDto<BloodRequestResponseDto> getAllBloodRequestsPage(int page, int size, String sort, boolean withTotal) {
+        Pageable pageable = PageRequests.of(page, size, sort, SORTABLE_PROPERTIES);
+        return withTotal
+                ? PageRequests.toResponse(bloodRequestRepository.findSummaryPage(pageable), bloodRequestMapper::toResponseDto)
+                : PageRequests.toResponse(bloodRequestRepository.findSummarySlice(pageable), bloodRequestMapper::toResponseDto);
+    }
+    
     
     // Méthodes pour les donneurs
     public List<BloodRequestResponseDto> getAllActiveBloodRequests() {
-        List<BloodRequest> requests = bloodRequestRepository.findAllActiveRequestsOrderedByUrgency();
-        return requests.stream()
+        List<BloodRequestSummary> requests = bloodRequestRepository.findActiveSummariesOrderedByUrgency();
+        return toSummaryDtos(requests);
+    }
+    
+    public CursorPageDto<BloodRequestResponseDto> getActiveBloodRequestsPage(String cursor, int size) {
+        int pageSize = pageSize(size);
+        FeedCursor after = cursor != null ? FeedCursor.decode(cursor) : null;
+        
+        // Une ligne de plus que la page pour savoir s'il reste des demandes
+        List<BloodRequest> requests = after == null
+                ? bloodRequestRepository.findActiveRequestsFirstPage(pageSize + 1)
+                : bloodRequestRepository.findActiveRequestsAfter(after.urgencyRank(), after.createdAt(), after.id(), pageSize + 1);
+        List<BloodRequestResponseDto> page = toResponseDtos(requests);
+        return toCursorPage(page, pageSize);
+    }
+    
+    // Modifications après le curseur, dans l'ordre du journal : demandes créées ou modifiées (changements de statut
+    // compris) dans content, demandes supprimées dans deletedIds. Curseur 0 : synchronisation initiale, toutes les
+    // demandes actives ; le curseur renvoyé peut précéder des modifications déjà reflétées, le client les applique
+    // par id.
+    @Transactional(readOnly = true)
+    public BloodRequestChangesDto getChangesSince(long since, int size) {
+        if (since < 0) {
+            throw new IllegalArgumentException("Curseur de synchronisation invalide : " + since);
+        }
+        // Les numéros sont pris à l'écriture mais visibles au commit : un numéro manquant pris après settledBefore
+        // peut appartenir à une transaction encore en cours. Plus ancien, il a été validé ou annulé.
+        LocalDateTime settledBefore = changeRepository.findDatabaseTime().minus(maxTransactionAge);
+        
+        if (since == 0) {
+            long cursor = changeRepository.findFirstByChangedAtBeforeOrderByChangedAtDesc(settledBefore)
+                    .map(BloodRequestChange::getSeq)
+                    .orElse(0L);
+            List<BloodRequestResponseDto> content = toSummaryDtos(bloodRequestRepository.findActiveSummariesOrderedByUrgency());
+            return new BloodRequestChangesDto(content, List.of(), cursor, false);
+        }
+        
+        Long firstSeq = changeRepository.findFirstSeq();
+        if (firstSeq != null && since < firstSeq - 1) {
+            throw new IllegalArgumentException("Curseur de synchronisation expiré, relancer avec since=0 : " + since);
+        }
+        
+        int pageSize = pageSize(size);
+        List<BloodRequestChange> changes = changeRepository.findBySeqGreaterThanOrderBySeq(since, PageRequest.of(0, pageSize + 1));
+        // Dernière entrée de chaque demande, dans l'ordre du journal ; arrêt au premier numéro manquant trop récent
+        Map<Long, BloodRequestChange> latestChanges = new LinkedHashMap<>();
+        long cursor = since;
+        boolean stoppedAtGap = false;
+        for (BloodRequestChange change : changes.subList(0, Math.min(changes.size(), pageSize))) {
+            if (change.getSeq() != cursor + 1 && !change.getChangedAt().isBefore(settledBefore)) {
+                stoppedAtGap = true;
+                break;
+            }
+            latestChanges.remove(change.getBloodRequestId());
+            latestChanges.put(change.getBloodRequestId(), change);
+            cursor = change.getSeq();
+        }
+        boolean hasMore = !stoppedAtGap && changes.size() > pageSize;
+        
+        List<Long> changedIds = latestChanges.values().stream()
+                .filter(change -> !change.isDeleted())
+                .map(BloodRequestChange::getBloodRequestId)
+                .collect(Collectors.toList());
+        List<Long> deletedIds = latestChanges.values().stream()
+                .filter(BloodRequestChange::isDeleted)
+                .map(BloodRequestChange::getBloodRequestId)
+                .collect(Collectors.toList());
+        Map<Long, BloodRequestSummary> summaries = changedIds.isEmpty() ? Map.of() : bloodRequestRepository
+                .findSummariesByIdIn(changedIds)
+                .stream()
+                .collect(Collectors.toMap(BloodRequestSummary::id, Function.identity()));
+        // Une demande supprimée depuis l'entrée lue apparaîtra dans deletedIds d'une page suivante
+        List<BloodRequestResponseDto> content = changedIds.stream()
+                .map(summaries::get)
+                .filter(summary -> summary != null)
                 .map(bloodRequestMapper::toResponseDto)
                 .collect(Collectors.toList());
+        return new BloodRequestChangesDto(content, deletedIds, cursor, hasMore);
     }
     
-    public List<BloodRequestResponseDto> getNearbyBloodRequests(BigDecimal userLatitude, BigDecimal userLongitude, BloodType bloodType) {
-        List<BloodRequest> requests = bloodRequestRepository.findNearbyActiveRequests(userLatitude, userLongitude, bloodType.name());
-        return requests.stream()
-                .map(bloodRequestMapper::toResponseDto)
+    public List<BloodRequestResponseDto> getNearbyBloodRequests(double userLatitude, double userLongitude, BloodType bloodType) {
+        return findNearby(userLatitude, userLongitude, EnumSet.of(bloodType), null, Integer.MAX_VALUE).stream()
+                .map(dto -> withDistance(dto, userLatitude, userLongitude))
                 .collect(Collectors.toList());
     }
     
-    public List<BloodRequestResponseDto> getBloodRequestsByBloodType(BloodType bloodType) {
-        List<BloodRequest> requests = bloodRequestRepository.findByBloodTypeAndStatus(bloodType, RequestStatus.ACTIVE);
+    public CursorPageDto<BloodRequestResponseDto> getNearbyBloodRequestsPage(double userLatitude, double userLongitude,
+                                                                              BloodType bloodType, String cursor, int size) {
+        int pageSize = pageSize(size);
+        FeedCursor after = cursor != null ? FeedCursor.decode(cursor) : null;
+        
+        List<BloodRequestResponseDto> page = findNearby(userLatitude, userLongitude, EnumSet.of(bloodType), after, pageSize + 1).stream()
+                .map(dto -> withDistance(dto, userLatitude, userLongitude))
+                .collect(Collectors.toList());
+        return toCursorPage(page, pageSize);
+    }
+    
+    // Demandes proches dans l'ordre du flux (urgence, date de création, id), à partir du curseur et au plus limit
+    private List<BloodRequestResponseDto> findNearby(double userLatitude, double userLongitude, Set<BloodType> bloodTypes,
+                                                     FeedCursor after, int limit) {
+        // Réponse depuis l'index en mémoire dès qu'il est chargé
+        if (nearbySearchStrategy == NearbySearchStrategy.IN_MEMORY && activeRequestIndex.isReady()) {
+            return activeRequestIndex.findNearby(userLatitude, userLongitude, bloodTypes).stream()
+                    .filter(dto -> after == null || after.isBefore(dto))
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+        
+        // Curseur, tri et LIMIT appliqués par la base : seules les lignes de la page sont lues
+        List<String> bloodTypeNames = bloodTypes.stream().map(BloodType::name).collect(Collectors.toList());
+        Integer afterUrgencyRank = after != null ? after.urgencyRank() : null;
+        LocalDateTime afterCreatedAt = after != null ? after.createdAt() : null;
+        Long afterId = after != null ? after.id() : null;
+        
+        List<BloodRequest> requests;
+        if (nearbySearchStrategy == NearbySearchStrategy.BOUNDING_BOX) {
+            // Pré-filtrage par rectangle latitude/longitude, sauf près des pôles et de l'antiméridien
+            GeoUtils.BoundingBox box = GeoUtils.boundingBox(userLatitude, userLongitude, GeoUtils.MAX_SEARCH_RADIUS_KM);
+            requests = box != null
+                    ? bloodRequestRepository.findNearbyActiveRequestsInBoundingBox(userLatitude, userLongitude, bloodTypeNames,
+                            box.minLatitude(), box.maxLatitude(), box.minLongitude(), box.maxLongitude(),
+                            afterUrgencyRank, afterCreatedAt, afterId, limit)
+                    : bloodRequestRepository.findNearbyActiveRequests(userLatitude, userLongitude, bloodTypeNames,
+                            afterUrgencyRank, afterCreatedAt, afterId, limit);
+        } else {
+            // Pré-filtrage par cellules de la grille (rayon maximal des demandes), sauf près des pôles
+            List<Integer> cells = nearbySearchStrategy == NearbySearchStrategy.FULL_SCAN ? null
+                    : GeoUtils.cellsWithin(userLatitude, userLongitude, GeoUtils.MAX_SEARCH_RADIUS_KM);
+            requests = cells != null
+                    ? bloodRequestRepository.findNearbyActiveRequestsInCells(userLatitude, userLongitude, bloodTypeNames, cells,
+                            afterUrgencyRank, afterCreatedAt, afterId, limit)
+                    : bloodRequestRepository.findNearbyActiveRequests(userLatitude, userLongitude, bloodTypeNames,
+                            afterUrgencyRank, afterCreatedAt, afterId, limit);
+        }
+        return toResponseDtos(requests);
+    }
+    
+    private List<BloodRequestResponseDto> toResponseDtos(List<BloodRequest> requests) {
         return requests.stream()
                 .map(bloodRequestMapper::toResponseDto)
                 .collect(Collectors.toList());
     }
     
-    public List<BloodRequestResponseDto> getBloodRequestsByUrgencyLevel(UrgencyLevel urgencyLevel) {
-        List<BloodRequest> requests = bloodRequestRepository.findByUrgencyLevel(urgencyLevel);
+    private List<BloodRequestResponseDto> toSummaryDtos(List<BloodRequestSummary> requests) {
         return requests.stream()
-                .filter(r -> r.getStatus() == RequestStatus.ACTIVE)
                 .map(bloodRequestMapper::toResponseDto)
                 .collect(Collectors.toList());
     }
     
+    private BloodRequestResponseDto withDistance(BloodRequestResponseDto dto, double userLatitude, double userLongitude) {
+        double distanceKm = GeoUtils.distanceKm(userLatitude, userLongitude, dto.getLatitude(), dto.getLongitude());
+        return bloodRequestMapper.withDistance(dto, distanceKm);
+    }
+    
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+    
+    // La liste contient au plus pageSize + 1 éléments, le dernier signalant une page suivante
+    private static CursorPageDto<BloodRequestResponseDto> toCursorPage(List<BloodRequestResponseDto> results, int pageSize) {
+        if (results.size() <= pageSize) {
+            return new CursorPageDto<>(results, null);
+        }
+        List<BloodRequestResponseDto> content = results.subList(0, pageSize);
+        return new CursorPageDto<>(content, FeedCursor.of(content.get(pageSize - 1)).encode());
+    }
+    
+    // Demandes proches auxquelles le donneur peut répondre (tous les groupes compatibles)
+    public List<BloodRequestResponseDto> getCompatibleNearbyBloodRequests(double userLatitude, double userLongitude, BloodType donorBloodType) {
+        Set<BloodType> bloodTypes = BloodTypeCompatibility.compatibleRecipients(donorBloodType);
+        return findNearby(userLatitude, userLongitude, bloodTypes, null, Integer.MAX_VALUE).stream()
+                .map(dto -> withDistance(dto, userLatitude, userLongitude))
+                .collect(Collectors.toList());
+    }
+    
+    public List<BloodRequestResponseDto> getCompatibleBloodRequests(BloodType donorBloodType) {
+        List<BloodRequestSummary> requests = bloodRequestRepository.findActiveSummariesForBloodTypes(
+                BloodTypeCompatibility.compatibleRecipients(donorBloodType));
+        return toSummaryDtos(requests);
+    }
+    
+    public NearbyIndexConsistencyDto checkNearbyIndexConsistency(double userLatitude, double userLongitude, BloodType bloodType) {
+        return activeRequestIndex.checkConsistency(userLatitude, userLongitude, bloodType);
+    }
+    
+    public List<BloodRequestResponseDto> getBloodRequestsByBloodType(BloodType bloodType) {
+        List<BloodRequestSummary> requests = bloodRequestRepository.findSummariesByBloodTypeAndStatus(bloodType, RequestStatus.ACTIVE);
+        return toSummaryDtos(requests);
+    }
+    
+    public List<BloodRequestResponseDto> getBloodRequestsByUrgencyLevel(UrgencyLevel urgencyLevel) {
+        List<BloodRequestSummary> requests = bloodRequestRepository.findSummariesByUrgencyLevelAndStatus(urgencyLevel, RequestStatus.ACTIVE);
+        return toSummaryDtos(requests);
+    }
+    
     // Méthode pour marquer les demandes expirées
     @Transactional
     public void markExpiredRequests() {
         List<BloodRequest> expiredRequests = bloodRequestRepository.findExpiredRequests(LocalDateTime.now());
         for (BloodRequest request : expiredRequests) {
             request.setStatus(RequestStatus.EXPIRED);
+            activeRequestIndex.remove(request.getId());
         }
         bloodRequestRepository.saveAll(expiredRequests);
+        if (!expiredRequests.isEmpty()) {
+            eventPublisher.publishEvent(new BloodRequestChangedEvent(BloodRequestChangeType.EXPIRED, expiredRequests.stream()
+                    .map(BloodRequest::getId)
+                    .collect(Collectors.toList())));
+        }
         logger.info("Marqué {} demandes comme expirées", expiredRequests.size());
     }
 }
\ No newline at end of file
@@ -1,26 +1,43 @@
 package com.blooddonation.service;
 
 import com.blooddonation.dto.ContactDto;
+import com.blooddonation.dto.ContactImportResultDto;
 import com.blooddonation.dto.ContactResponseDto;
 import com.blooddonation.entity.Contact;
 import com.blooddonation.entity.User;
 import com.blooddonation.enums.BloodType;
 import com.blooddonation.exception.ContactNotFoundException;
 import com.blooddonation.exception.UserNotFoundException;
+import com.blooddonation.mapper.ContactMapper;
+import com.blooddonation.projection.ContactSummary;
 import com.blooddonation.repository.ContactRepository;
 import com.blooddonation.repository.UserRepository;
-import org.modelmapper.ModelMapper;
+import com.blooddonation.util.CsvReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ContactService {
     
+    // Aligné sur hibernate.jdbc.batch_size
+    private static final int IMPORT_BATCH_SIZE = 50;
+    
     @Autowired
     private ContactRepository contactRepository;
     
@@ -28,17 +45,22 @@ public class ContactService {
     private UserRepository userRepository;
     
     @Autowired
-    private ModelMapper modelMapper;
+    private ContactMapper contactMapper;
+    
+    @Autowired
+    private Validator validator;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
     
     public ContactResponseDto addContact(Long userId, ContactDto contactDto) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("Utilisateur non trouvé avec l'ID : " + userId));
         
-        Contact contact = modelMapper.map(contactDto, Contact.class);
-        contact.setUser(user);
+        Contact contact = contactMapper.toEntity(contactDto, user);
         
         Contact savedContact = contactRepository.save(contact);
-        return modelMapper.map(savedContact, ContactResponseDto.class);
+        return contactMapper.toResponseDto(savedContact);
     }
     
     public List<ContactResponseDto> getContactsByUserId(Long userId) {
@@ -46,9 +68,9 @@ public class ContactService {
             throw new UserNotFoundException("Utilisateur non trouvé avec l'ID : " + userId);
         }
         
-        List<Contact> contacts = contactRepository.findByUserId(userId);
+        List<ContactSummary> contacts = contactRepository.findSummariesByUserId(userId);
         return contacts.stream()
-                .map(contact -> modelMapper.map(contact, ContactResponseDto.class))
+                .map(contact -> contactMapper.toResponseDto(contact))
                 .collect(Collectors.toList());
     }
     
@@ -57,9 +79,9 @@ public class ContactService {
             throw new UserNotFoundException("Utilisateur non trouvé avec l'ID : " + userId);
         }
         
-        List<Contact> contacts = contactRepository.findContactsWithSameBloodTypeAsUserById(userId);
+        List<ContactSummary> contacts = contactRepository.findSummariesWithSameBloodTypeAsUserById(userId);
         return contacts.stream()
-                .map(contact -> modelMapper.map(contact, ContactResponseDto.class))
+                .map(contact -> contactMapper.toResponseDto(contact))
                 .collect(Collectors.toList());
     }
     
@@ -68,16 +90,16 @@ public class ContactService {
             throw new UserNotFoundException("Utilisateur non trouvé avec l'ID : " + userId);
         }
         
-        List<Contact> contacts = contactRepository.findByUserIdAndBloodType(userId, bloodType);
+        List<ContactSummary> contacts = contactRepository.findSummariesByUserIdAndBloodType(userId, bloodType);
         return contacts.stream()
-                .map(contact -> modelMapper.map(contact, ContactResponseDto.class))
+                .map(contact -> contactMapper.toResponseDto(contact))
                 .collect(Collectors.toList());
     }
     
     public ContactResponseDto getContactById(Long contactId) {
         Contact contact = contactRepository.findById(contactId)
                 .orElseThrow(() -> new ContactNotFoundException("Contact non trouvé avec l'ID : " + contactId));
-        return modelMapper.map(contact, ContactResponseDto.class);
+        return contactMapper.toResponseDto(contact);
     }
     
     public ContactResponseDto updateContact(Long contactId, ContactDto contactDto) {
@@ -98,7 +120,50 @@ public class ContactService {
         contact.setNotes(contactDto.getNotes());
         
         Contact updatedContact = contactRepository.save(contact);
-        return modelMapper.map(updatedContact, ContactResponseDto.class);
+        return contactMapper.toResponseDto(updatedContact);
+    }
+    
+    // Import en masse : les lignes valides sont insérées par lots, les autres sont signalées avec leur numéro
+    public ContactImportResultDto importContacts(Long userId, List<ContactDto> contacts) {
+        requireUser(userId);
+        
+        ContactImportResultDto result = new ContactImportResultDto();
+        int row = 0;
+        for (ContactDto contactDto : contacts) {
+            importContact(userId, ++row, contactDto, result);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return result;
+    }
+    
+    // Première ligne : noms des champs de ContactDto (firstName, lastName, phoneNumber, bloodType...)
+    public ContactImportResultDto importContactsCsv(Long userId, Reader csv) throws IOException {
+        requireUser(userId);
+        
+        ContactImportResultDto result = new ContactImportResultDto();
+        CsvReader reader = new CsvReader(csv);
+        List<String> header = reader.readRecord();
+        if (header == null) {
+            return result;
+        }
+        
+        int row = 0;
+        List<String> record;
+        while ((record = reader.readRecord()) != null) {
+            row++;
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            try {
+                importContact(userId, row, toContactDto(header, record), result);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                result.addError(row, e.getMessage());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return result;
     }
     
     public void deleteContact(Long contactId) {
@@ -106,4 +171,54 @@ public class ContactService {
                 .orElseThrow(() -> new ContactNotFoundException("Contact non trouvé avec l'ID : " + contactId));
         contactRepository.delete(contact);
     }
+    
+    private void requireUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("Utilisateur non trouvé avec l'ID : " + userId);
+        }
+    }
+    
+    private void importContact(Long userId, int row, ContactDto contactDto, ContactImportResultDto result) {
+        Set<ConstraintViolation<ContactDto>> violations = validator.validate(contactDto);
+        if (!violations.isEmpty()) {
+            result.addError(row, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " : " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return;
+        }
+        
+        // Référence sans SELECT sur l'utilisateur, de nouveau obtenue après chaque clear()
+        User user = entityManager.getReference(User.class, userId);
+        entityManager.persist(contactMapper.toEntity(contactDto, user));
+        result.addImported();
+        
+        // Envoi du lot puis vidage du contexte de persistance pour garder une mémoire constante
+        if (result.getImported() % IMPORT_BATCH_SIZE == 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+    
+    private static ContactDto toContactDto(List<String> header, List<String> record) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < header.size() && i < record.size(); i++) {
+            String value = record.get(i).trim();
+            values.put(header.get(i).trim(), value.isEmpty() ? null : value);
+        }
+        
+        ContactDto contactDto = new ContactDto();
+        contactDto.setFirstName(values.get("firstName"));
+        contactDto.setLastName(values.get("lastName"));
+        contactDto.setEmail(values.get("email"));
+        contactDto.setPhoneNumber(values.get("phoneNumber"));
+        contactDto.setBirthDate(values.get("birthDate") != null ? LocalDate.parse(values.get("birthDate")) : null);
+        contactDto.setBloodType(values.get("bloodType") != null ? BloodType.valueOf(values.get("bloodType")) : null);
+        contactDto.setRelationship(values.get("relationship"));
+        contactDto.setAddress(values.get("address"));
+        contactDto.setCity(values.get("city"));
+        contactDto.setPostalCode(values.get("postalCode"));
+        contactDto.setNotes(values.get("notes"));
+        return contactDto;
+    }
 }
\ No newline at end of file
@@ -1,18 +1,22 @@
 package com.blooddonation.service;
 
+import com.blooddonation.dto.CacheStatsDto;
 import com.blooddonation.entity.User;
-import com.blooddonation.enums.UserRole;
 import com.blooddonation.repository.UserRepository;
+import com.blooddonation.security.RoleAuthorities;
+import com.blooddonation.util.TransactionUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.time.Duration;
 import java.util.List;
 
 @Service
@@ -21,33 +25,61 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
     
+    @Value("${security.user-details-cache.enabled:true}")
+    private boolean cacheEnabled;
+    
+    @Value("${security.user-details-cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+    
+    @Value("${security.user-details-cache.ttl-seconds:300}")
+    private long cacheTtlSeconds;
+    
+    // Cache borné en taille et en durée : une entrée manquée par l'éviction expire au plus tard après le TTL
+    private Cache<String, UserDetails> cache;
+    
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .recordStats()
+                .build();
+    }
+    
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        if (!cacheEnabled) {
+            return loadFromDatabase(email);
+        }
+        // Les emails inconnus lèvent une exception et ne sont pas mis en cache
+        UserDetails cached = cache.get(email, this::loadFromDatabase);
+        // Copie : après la connexion, Spring Security efface le mot de passe du principal retourné
+        return org.springframework.security.core.userdetails.User.withUserDetails(cached).build();
+    }
+    
+    // Éviction après le commit, pour qu'une relecture concurrente ne remette pas l'ancienne version en cache
+    public void evict(String... emails) {
+        if (!cacheEnabled) {
+            return;
+        }
+        List<String> keys = List.of(emails);
+        TransactionUtils.afterCommit(() -> cache.invalidateAll(keys));
+    }
+    
+    public CacheStatsDto getCacheStats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto("userDetails", cacheEnabled, cache.estimatedSize(),
+                stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+    
+    private UserDetails loadFromDatabase(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé avec l'email : " + email));
         
         return new org.springframework.security.core.userdetails.User(
                 user.getEmail(),
                 user.getPassword(),
-                getAuthorities(user.getRole())
+                RoleAuthorities.of(user.getRole())
         );
     }
-    
-    private Collection<? extends GrantedAuthority> getAuthorities(UserRole role) {
-        List<GrantedAuthority> authorities = new ArrayList<>();
-        
-        switch (role) {
-            case USER:
-                authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
-                break;
-            case HOSPITAL:
-                // HOSPITAL a tous les privilèges (ADMIN + HOSPITAL + USER)
-                authorities.add(new SimpleGrantedAuthority("ROLE_HOSPITAL"));
-                authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
-                authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
-                break;
-        }
-        
-        return authorities;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,135 @@
+package com.blooddonation.service;
+
+import com.blooddonation.entity.BloodRequest;
+import com.blooddonation.entity.Contact;
+import com.blooddonation.event.BloodRequestChangedEvent;
+import com.blooddonation.repository.BloodRequestChangeRepository;
+import com.blooddonation.repository.BloodRequestRepository;
+import com.blooddonation.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+// Opérations de mise à niveau des données exécutées au démarrage
+@Service
+public class DataMaintenanceService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DataMaintenanceService.class);
+    
+    @Autowired
+    private BloodRequestRepository bloodRequestRepository;
+    
+    @Autowired
+    private BloodRequestChangeRepository changeRepository;
+    
+    @Autowired
+    private ActiveBloodRequestIndex activeRequestIndex;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${blood-requests.changes.retention:7d}")
+    private Duration changesRetention;
+    
+    // Avant l'ouverture du serveur : le premier lot d'ids réservé ne doit pas chevaucher les ids existants,
+    // et toute écriture sur les demandes doit déjà être inscrite au journal des modifications
+    @PostConstruct
+    public void prepareDatabase() {
+        alignSequence(Contact.class);
+        alignSequence(BloodRequest.class);
+        installChangeTracking();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void onApplicationReady() {
+        int updated = bloodRequestRepository.backfillGeoCells();
+        if (updated > 0) {
+            logger.info("Cellule géographique calculée pour {} demandes existantes", updated);
+        }
+        reconcileResponseCounters();
+    }
+    
+    // Répare les compteurs de réponses qui auraient dérivé (écritures concurrentes, modifications manuelles...)
+    @Scheduled(cron = "${blood-requests.counters.reconcile-cron:0 0 3 * * *}")
+    @Transactional
+    public void reconcileResponseCounters() {
+        int repaired = bloodRequestRepository.reconcileResponseCounters();
+        if (repaired > 0) {
+            logger.warn("Compteurs de réponses corrigés pour {} demandes", repaired);
+            TransactionUtils.afterCommit(activeRequestIndex::rebuild);
+            eventPublisher.publishEvent(BloodRequestChangedEvent.unspecified());
+        }
+    }
+    
+    // Le journal blood_request_changes est alimenté par la base pour couvrir toutes les écritures, y compris
+    // les UPDATE groupés (compteurs de réponses, réconciliation) et les suppressions en cascade d'un utilisateur.
+    // Les numéros viennent d'une séquence, sans verrou partagé entre les écritures : la lecture tient compte
+    // des numéros pris par des transactions encore en cours (voir BloodRequestService.getChangesSince)
+    private void installChangeTracking() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS blood_request_changes_seq");
+        installChangeTrigger("INSERT", "NEW.id", false);
+        installChangeTrigger("UPDATE", "NEW.id", false);
+        installChangeTrigger("DELETE", "OLD.id", true);
+    }
+    
+    private void installChangeTrigger(String event, String requestId, boolean deleted) {
+        jdbcTemplate.execute("CREATE OR REPLACE TRIGGER blood_requests_change_" + event.toLowerCase()
+                + " AFTER " + event + " ON blood_requests FOR EACH ROW"
+                + " INSERT INTO blood_request_changes (seq, blood_request_id, deleted, changed_at)"
+                + " VALUES (NEXT VALUE FOR blood_request_changes_seq, " + requestId + ", " + deleted + ", SYSDATE(6))");
+    }
+    
+    // Le journal ne garde que la période de rétention, et toujours sa dernière entrée :
+    // un curseur plus ancien est refusé et le client relance la synchronisation complète
+    @Scheduled(cron = "${blood-requests.changes.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeChangeLog() {
+        Long lastSeq = changeRepository.findLastSeq();
+        if (lastSeq == null) {
+            return;
+        }
+        int purged = changeRepository.deleteOlderThan(changeRepository.findDatabaseTime().minus(changesRetention), lastSeq);
+        if (purged > 0) {
+            logger.info("{} entrées du journal des modifications purgées", purged);
+        }
+    }
+    
+    // Les lignes créées avec IDENTITY ont des ids que la séquence (créée à 1) ne connaît pas.
+    // L'optimiseur pooled prend la valeur lue pour la borne haute d'un lot de allocationSize ids :
+    // la séquence est placée à MAX(id) + allocationSize pour que le premier lot commence après MAX(id).
+    // Table, séquence et taille de lot sont lues dans le mapping de l'entité.
+    // SETVAL n'accepte qu'une valeur littérale et ne fait jamais reculer la séquence.
+    private void alignSequence(Class<?> entityClass) {
+        String table = entityClass.getAnnotation(Table.class).name();
+        SequenceGenerator generator = Arrays.stream(entityClass.getDeclaredFields())
+                .filter(field -> field.isAnnotationPresent(Id.class) && field.isAnnotationPresent(SequenceGenerator.class))
+                .map(field -> field.getAnnotation(SequenceGenerator.class))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Pas de @SequenceGenerator sur l'id de " + entityClass.getSimpleName()));
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        if (maxId != null) {
+            long value = maxId + generator.allocationSize();
+            jdbcTemplate.queryForObject("SELECT SETVAL(" + generator.sequenceName() + ", " + value + ")", Long.class);
+            logger.debug("Séquence {} placée à {} (id maximal {} de {})", generator.sequenceName(), value, maxId, table);
+        }
+    }
+}
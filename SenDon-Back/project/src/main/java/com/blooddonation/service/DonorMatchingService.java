@@ -0,0 +1,175 @@
+package com.blooddonation.service;
+
+import com.blooddonation.dto.DonorMatchDto;
+import com.blooddonation.entity.BloodRequest;
+import com.blooddonation.entity.User;
+import com.blooddonation.enums.BloodType;
+import com.blooddonation.enums.UserRole;
+import com.blooddonation.repository.UserRepository;
+import com.blooddonation.util.BloodTypeCompatibility;
+import com.blooddonation.util.GeoUtils;
+import com.blooddonation.util.TransactionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Recherche des donneurs compatibles autour d'une demande de sang.
+ * Les donneurs géolocalisés sont gardés en mémoire, par groupe sanguin puis par cellule de la grille,
+ * pour ne parcourir que les groupes compatibles et les cellules couvertes par le rayon de la demande.
+ */
+@Service
+public class DonorMatchingService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DonorMatchingService.class);
+    
+    public static final int MAX_RESULTS = 500;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private volatile Map<BloodType, Map<Integer, Map<Long, Donor>>> donorsByType = emptyIndex();
+    
+    private volatile Map<Long, Donor> donorsById = new ConcurrentHashMap<>();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        Map<BloodType, Map<Integer, Map<Long, Donor>>> newDonorsByType = emptyIndex();
+        Map<Long, Donor> newDonorsById = new ConcurrentHashMap<>();
+        for (User user : userRepository.findDonorsWithLocation()) {
+            Donor donor = Donor.of(user);
+            newDonorsById.put(donor.id(), donor);
+            newDonorsByType.get(donor.bloodType())
+                    .computeIfAbsent(donor.cell(), cell -> new ConcurrentHashMap<>())
+                    .put(donor.id(), donor);
+        }
+        
+        donorsByType = newDonorsByType;
+        donorsById = newDonorsById;
+        logger.info("Index des donneurs géolocalisés reconstruit: {} donneurs", newDonorsById.size());
+    }
+    
+    // Met à jour la position connue du donneur après le commit
+    public void updateDonor(User user) {
+        boolean locatedDonor = user.getRole() == UserRole.USER
+                && user.getLatitude() != null && user.getLongitude() != null;
+        Donor donor = locatedDonor ? Donor.of(user) : null;
+        Long userId = user.getId();
+        TransactionUtils.afterCommit(() -> apply(userId, donor));
+    }
+    
+    public void removeDonor(Long userId) {
+        TransactionUtils.afterCommit(() -> apply(userId, null));
+    }
+    
+    // Donneurs compatibles dans le rayon de la demande, du plus proche au plus éloigné
+    public List<DonorMatchDto> findMatchingDonors(BloodRequest request, int limit) {
+        double latitude = request.getLatitude();
+        double longitude = request.getLongitude();
+        int radiusKm = request.getSearchRadiusKm();
+        BloodType requestedType = request.getBloodType();
+        int maxResults = Math.max(1, Math.min(limit, MAX_RESULTS));
+        
+        // À distance égale, le donneur du même groupe passe avant (on préserve les groupes universels)
+        Comparator<Match> ranking = Comparator.comparingDouble(Match::distanceKm)
+                .thenComparing(match -> match.donor().bloodType() != requestedType)
+                .thenComparingLong(match -> match.donor().id());
+        // Tas borné : on ne garde que les meilleurs résultats au lieu de trier tous les candidats
+        PriorityQueue<Match> best = new PriorityQueue<>(maxResults + 1, ranking.reversed());
+        
+        List<Integer> cells = GeoUtils.cellsWithin(latitude, longitude, radiusKm);
+        Map<BloodType, Map<Integer, Map<Long, Donor>>> index = donorsByType;
+        for (BloodType donorType : BloodTypeCompatibility.compatibleDonors(requestedType)) {
+            Map<Integer, Map<Long, Donor>> typeCells = index.get(donorType);
+            if (cells == null) {
+                for (Map<Long, Donor> cellDonors : typeCells.values()) {
+                    collectMatches(cellDonors.values(), latitude, longitude, radiusKm, best, maxResults);
+                }
+            } else {
+                for (Integer cell : cells) {
+                    Map<Long, Donor> cellDonors = typeCells.get(cell);
+                    if (cellDonors != null) {
+                        collectMatches(cellDonors.values(), latitude, longitude, radiusKm, best, maxResults);
+                    }
+                }
+            }
+        }
+        
+        List<Match> ranked = new ArrayList<>(best);
+        ranked.sort(ranking);
+        return ranked.stream()
+                .map(Match::toDto)
+                .collect(Collectors.toList());
+    }
+    
+    private void collectMatches(Collection<Donor> candidates, double latitude, double longitude, int radiusKm,
+                                PriorityQueue<Match> best, int maxResults) {
+        for (Donor donor : candidates) {
+            double distanceKm = GeoUtils.distanceKm(latitude, longitude, donor.latitude(), donor.longitude());
+            if (distanceKm <= radiusKm) {
+                best.offer(new Match(donor, distanceKm));
+                if (best.size() > maxResults) {
+                    best.poll();
+                }
+            }
+        }
+    }
+    
+    private synchronized void apply(Long userId, Donor donor) {
+        Donor previous = donor != null ? donorsById.put(userId, donor) : donorsById.remove(userId);
+        if (previous != null) {
+            Map<Long, Donor> previousCell = donorsByType.get(previous.bloodType()).get(previous.cell());
+            if (previousCell != null) {
+                previousCell.remove(userId);
+            }
+        }
+        if (donor != null) {
+            donorsByType.get(donor.bloodType())
+                    .computeIfAbsent(donor.cell(), cell -> new ConcurrentHashMap<>())
+                    .put(userId, donor);
+        }
+    }
+    
+    private static Map<BloodType, Map<Integer, Map<Long, Donor>>> emptyIndex() {
+        Map<BloodType, Map<Integer, Map<Long, Donor>>> index = new EnumMap<>(BloodType.class);
+        for (BloodType bloodType : BloodType.values()) {
+            index.put(bloodType, new ConcurrentHashMap<>());
+        }
+        return index;
+    }
+    
+    private record Donor(long id, BloodType bloodType, double latitude, double longitude, int cell,
+                         String name, String phoneNumber, String city) {
+        
+        static Donor of(User user) {
+            double latitude = user.getLatitude();
+            double longitude = user.getLongitude();
+            return new Donor(user.getId(), user.getBloodType(), latitude, longitude,
+                    GeoUtils.cellOf(latitude, longitude),
+                    user.getFirstName() + " " + user.getLastName(), user.getPhoneNumber(), user.getCity());
+        }
+    }
+    
+    private record Match(Donor donor, double distanceKm) {
+        
+        DonorMatchDto toDto() {
+            return new DonorMatchDto(donor.id(), donor.name(), donor.phoneNumber(),
+                    donor.bloodType(), donor.city(), distanceKm);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.blooddonation.service;
+
+import com.blooddonation.dto.CacheStatsDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.cache.CacheManager;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+// Statistiques des régions du cache de second niveau (User)
+@Service
+public class EntityCacheService {
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    public List<CacheStatsDto> getRegionStats() {
+        RegionFactory regionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getCache()
+                .getRegionFactory();
+        // Cache désactivé ou autre implémentation : aucune région à décrire
+        if (!(regionFactory instanceof JCacheRegionFactory jCacheRegionFactory)) {
+            return List.of();
+        }
+        CacheManager cacheManager = jCacheRegionFactory.getCacheManager();
+        return StreamSupport.stream(cacheManager.getCacheNames().spliterator(), false)
+                .sorted()
+                .map(name -> regionStats(name, cacheManager.getCache(name).unwrap(Cache.class)))
+                .toList();
+    }
+    
+    // Statistiques Caffeine de la région (monitoring.native-statistics dans caffeine.conf)
+    private CacheStatsDto regionStats(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto(name, true, cache.estimatedSize(),
+                stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+}
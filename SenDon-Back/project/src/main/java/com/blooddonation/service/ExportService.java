@@ -0,0 +1,172 @@
+package com.blooddonation.service;
+
+import com.blooddonation.dto.BloodRequestResponseDto;
+import com.blooddonation.dto.BloodRequestResponseResponseDto;
+import com.blooddonation.enums.ExportFormat;
+import com.blooddonation.exception.UserNotFoundException;
+import com.blooddonation.mapper.BloodRequestMapper;
+import com.blooddonation.mapper.BloodRequestResponseMapper;
+import com.blooddonation.projection.BloodRequestResponseSummary;
+import com.blooddonation.projection.BloodRequestSummary;
+import com.blooddonation.repository.BloodRequestRepository;
+import com.blooddonation.repository.BloodRequestResponseRepository;
+import com.blooddonation.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Export de l'historique d'un hôpital (demandes et réponses des donneurs).
+ * Les lignes sont lues en flux depuis la base et écrites une à une dans la réponse HTTP,
+ * la mémoire utilisée ne dépend donc pas du nombre de lignes exportées.
+ */
+@Service
+public class ExportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+    
+    private static final Map<String, Function<BloodRequestResponseDto, Object>> REQUEST_COLUMNS = new LinkedHashMap<>();
+    private static final Map<String, Function<BloodRequestResponseResponseDto, Object>> RESPONSE_COLUMNS = new LinkedHashMap<>();
+    
+    static {
+        REQUEST_COLUMNS.put("id", BloodRequestResponseDto::getId);
+        REQUEST_COLUMNS.put("bloodType", BloodRequestResponseDto::getBloodType);
+        REQUEST_COLUMNS.put("quantityMl", BloodRequestResponseDto::getQuantityMl);
+        REQUEST_COLUMNS.put("urgencyLevel", BloodRequestResponseDto::getUrgencyLevel);
+        REQUEST_COLUMNS.put("status", BloodRequestResponseDto::getStatus);
+        REQUEST_COLUMNS.put("description", BloodRequestResponseDto::getDescription);
+        REQUEST_COLUMNS.put("latitude", BloodRequestResponseDto::getLatitude);
+        REQUEST_COLUMNS.put("longitude", BloodRequestResponseDto::getLongitude);
+        REQUEST_COLUMNS.put("searchRadiusKm", BloodRequestResponseDto::getSearchRadiusKm);
+        REQUEST_COLUMNS.put("hospitalName", BloodRequestResponseDto::getHospitalName);
+        REQUEST_COLUMNS.put("hospitalAddress", BloodRequestResponseDto::getHospitalAddress);
+        REQUEST_COLUMNS.put("contactPhone", BloodRequestResponseDto::getContactPhone);
+        REQUEST_COLUMNS.put("contactEmail", BloodRequestResponseDto::getContactEmail);
+        REQUEST_COLUMNS.put("deadline", BloodRequestResponseDto::getDeadline);
+        REQUEST_COLUMNS.put("notes", BloodRequestResponseDto::getNotes);
+        REQUEST_COLUMNS.put("responseCount", BloodRequestResponseDto::getResponseCount);
+        REQUEST_COLUMNS.put("pendingResponseCount", BloodRequestResponseDto::getPendingResponseCount);
+        REQUEST_COLUMNS.put("acceptedResponseCount", BloodRequestResponseDto::getAcceptedResponseCount);
+        REQUEST_COLUMNS.put("createdAt", BloodRequestResponseDto::getCreatedAt);
+        REQUEST_COLUMNS.put("updatedAt", BloodRequestResponseDto::getUpdatedAt);
+        
+        RESPONSE_COLUMNS.put("id", BloodRequestResponseResponseDto::getId);
+        RESPONSE_COLUMNS.put("bloodRequestId", BloodRequestResponseResponseDto::getBloodRequestId);
+        RESPONSE_COLUMNS.put("bloodRequestDescription", BloodRequestResponseResponseDto::getBloodRequestDescription);
+        RESPONSE_COLUMNS.put("hospitalName", BloodRequestResponseResponseDto::getHospitalName);
+        RESPONSE_COLUMNS.put("status", BloodRequestResponseResponseDto::getStatus);
+        RESPONSE_COLUMNS.put("message", BloodRequestResponseResponseDto::getMessage);
+        RESPONSE_COLUMNS.put("donorUserId", BloodRequestResponseResponseDto::getDonorUserId);
+        RESPONSE_COLUMNS.put("donorUserName", BloodRequestResponseResponseDto::getDonorUserName);
+        RESPONSE_COLUMNS.put("donorUserEmail", BloodRequestResponseResponseDto::getDonorUserEmail);
+        RESPONSE_COLUMNS.put("donorUserPhone", BloodRequestResponseResponseDto::getDonorUserPhone);
+        RESPONSE_COLUMNS.put("responseDate", BloodRequestResponseResponseDto::getResponseDate);
+        RESPONSE_COLUMNS.put("createdAt", BloodRequestResponseResponseDto::getCreatedAt);
+        RESPONSE_COLUMNS.put("updatedAt", BloodRequestResponseResponseDto::getUpdatedAt);
+    }
+    
+    @Autowired
+    private BloodRequestRepository bloodRequestRepository;
+    
+    @Autowired
+    private BloodRequestResponseRepository responseRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private BloodRequestMapper bloodRequestMapper;
+    
+    @Autowired
+    private BloodRequestResponseMapper responseMapper;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // Vérifié avant d'ouvrir le flux, pour pouvoir encore répondre 404
+    public void checkHospitalUser(Long hospitalUserId) {
+        if (!userRepository.existsById(hospitalUserId)) {
+            throw new UserNotFoundException("Utilisateur hôpital non trouvé avec l'ID : " + hospitalUserId);
+        }
+    }
+    
+    // Le flux JDBC reste ouvert pendant toute l'écriture : la transaction doit couvrir l'export entier
+    @Transactional(readOnly = true)
+    public long exportBloodRequests(Long hospitalUserId, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<BloodRequestSummary> rows = bloodRequestRepository.streamSummariesByHospitalUserId(hospitalUserId)) {
+            long count = write(rows.map(bloodRequestMapper::toResponseDto), format, REQUEST_COLUMNS, out);
+            logger.info("Export {} de {} demandes pour l'hôpital {}", format, count, hospitalUserId);
+            return count;
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public long exportResponses(Long hospitalUserId, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<BloodRequestResponseSummary> rows = responseRepository.streamSummariesForHospitalUser(hospitalUserId)) {
+            long count = write(rows.map(responseMapper::toResponseDto), format, RESPONSE_COLUMNS, out);
+            logger.info("Export {} de {} réponses pour l'hôpital {}", format, count, hospitalUserId);
+            return count;
+        }
+    }
+    
+    private <T> long write(Stream<T> rows, ExportFormat format, Map<String, Function<T, Object>> columns,
+                           OutputStream out) throws IOException {
+        // Le flux de la réponse n'est pas fermé ici, le conteneur servlet s'en charge
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ObjectWriter jsonWriter = objectMapper.writer();
+        long count = 0;
+        
+        if (format == ExportFormat.CSV) {
+            writeCsvLine(writer, columns.keySet().stream().map(name -> (Object) name).iterator());
+        }
+        for (Iterator<T> iterator = rows.iterator(); iterator.hasNext(); count++) {
+            T row = iterator.next();
+            if (format == ExportFormat.CSV) {
+                writeCsvLine(writer, columns.values().stream().map(column -> column.apply(row)).iterator());
+            } else {
+                writer.write(jsonWriter.writeValueAsString(row));
+                writer.write('\n');
+            }
+        }
+        
+        writer.flush();
+        return count;
+    }
+    
+    private static void writeCsvLine(Writer writer, Iterator<Object> values) throws IOException {
+        while (values.hasNext()) {
+            Object value = values.next();
+            if (value != null) {
+                writer.write(csvField(value.toString()));
+            }
+            if (values.hasNext()) {
+                writer.write(',');
+            }
+        }
+        writer.write("\r\n");
+    }
+    
+    // Guillemets autour des champs contenant un séparateur, des guillemets ou un retour à la ligne
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,114 @@
+package com.blooddonation.service;
+
+import com.blooddonation.entity.TokenRevocation;
+import com.blooddonation.repository.TokenRevocationRepository;
+import com.blooddonation.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Révocation des tokens JWT : pour chaque utilisateur concerné (suppression, changement d'email),
+ * les tokens émis au plus tard à la date enregistrée sont refusés.
+ * La date est enregistrée dans token_revocations, rechargée au démarrage puis relue périodiquement
+ * pour les révocations des autres instances ; la vérification de chaque requête se fait sur une copie
+ * en mémoire, sans accès à la base.
+ */
+@Service
+public class TokenRevocationService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+    
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+    
+    @Value("${jwt.revocation.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${jwt.expiration}")
+    private long jwtExpirationInMs;
+    
+    @Value("${jwt.revocation.refresh-overlap:60s}")
+    private Duration refreshOverlap;
+    
+    private final Map<Long, Instant> tokensValidAfter = new ConcurrentHashMap<>();
+    
+    // Début du dernier chargement depuis la base
+    private volatile Instant lastLoad;
+    
+    // Seules les révocations plus récentes que la durée de vie d'un token peuvent encore refuser un token
+    @PostConstruct
+    public void loadRevocations() {
+        lastLoad = Instant.now();
+        int loaded = load(oldestUsefulRevocation());
+        if (loaded > 0) {
+            logger.info("{} révocations de tokens rechargées", loaded);
+        }
+    }
+    
+    // Hors du chemin des requêtes : seules les révocations postérieures au chargement précédent sont relues
+    // (index sur tokens_valid_after). La marge couvre les transactions commitées après ce chargement
+    // et l'écart d'horloge entre les instances ; une révocation relue deux fois ne change rien
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-ms:10000}", initialDelayString = "${jwt.revocation.refresh-ms:10000}")
+    public void refreshRevocations() {
+        if (!enabled) {
+            return;
+        }
+        Instant since = lastLoad.minus(refreshOverlap);
+        lastLoad = Instant.now();
+        int loaded = load(since);
+        logger.debug("{} révocations de tokens relues depuis {}", loaded, since);
+    }
+    
+    // Enregistrée dans la transaction de la modification de l'utilisateur, appliquée en mémoire après son commit
+    @Transactional
+    public void revokeTokens(Long userId) {
+        Instant now = Instant.now();
+        tokenRevocationRepository.save(new TokenRevocation(userId, now));
+        TransactionUtils.afterCommit(() -> tokensValidAfter.put(userId, now));
+    }
+    
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        // Cas courant : aucune révocation en cours, aucune recherche
+        if (!enabled || tokensValidAfter.isEmpty()) {
+            return false;
+        }
+        Instant validAfter = tokensValidAfter.get(userId);
+        // iat est tronqué à la seconde : un token émis dans la seconde de la révocation est refusé
+        return validAfter != null && (issuedAt == null || !issuedAt.toInstant().isAfter(validAfter));
+    }
+    
+    @Scheduled(fixedDelayString = "${jwt.expiration}")
+    @Transactional
+    public void purgeExpired() {
+        Instant limit = oldestUsefulRevocation();
+        tokensValidAfter.values().removeIf(validAfter -> validAfter.isBefore(limit));
+        tokenRevocationRepository.deleteExpired(limit);
+    }
+    
+    // La date la plus récente l'emporte : une relecture ne recule jamais une révocation faite entre-temps
+    private int load(Instant since) {
+        List<TokenRevocation> revocations = tokenRevocationRepository.findByTokensValidAfterAfter(since);
+        for (TokenRevocation revocation : revocations) {
+            tokensValidAfter.merge(revocation.getUserId(), revocation.getTokensValidAfter(),
+                    (current, loaded) -> loaded.isAfter(current) ? loaded : current);
+        }
+        return revocations.size();
+    }
+    
+    private Instant oldestUsefulRevocation() {
+        return Instant.now().minusMillis(jwtExpirationInMs);
+    }
+}
@@ -1,34 +1,59 @@
 package com.blooddonation.service;
 
+import com.blooddonation.dto.PageResponseDto;
 import com.blooddonation.dto.UserRegistrationDto;
 import com.blooddonation.dto.UserResponseDto;
 import com.blooddonation.entity.User;
 import com.blooddonation.enums.BloodType;
+import com.blooddonation.enums.UserRole;
 import com.blooddonation.exception.EmailAlreadyExistsException;
 import com.blooddonation.exception.UserNotFoundException;
+import com.blooddonation.mapper.UserMapper;
+import com.blooddonation.projection.UserSummary;
 import com.blooddonation.repository.UserRepository;
-import org.modelmapper.ModelMapper;
+import com.blooddonation.util.PageRequests;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class UserService {
 
+    // Propriétés acceptées pour le tri de la liste paginée des utilisateurs
+    private static final Set<String> SORTABLE_PROPERTIES =
+            Set.of("id", "createdAt", "lastName", "firstName", "email", "city", "bloodType", "role");
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private UserMapper userMapper;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private DonorMatchingService donorMatchingService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private BloodRequestService bloodRequestService;
+
+    @Autowired
+    private BloodRequestResponseService bloodRequestResponseService;
+
     public UserResponseDto registerUser(UserRegistrationDto registrationDto) {
         // Vérifier si l'email existe déjà
         if (userRepository.existsByEmail(registrationDto.getEmail())) {
@@ -36,41 +61,42 @@ public class UserService {
         }
 
         // Mapper DTO vers Entity
-        User user = modelMapper.map(registrationDto, User.class);
+        User user = userMapper.toEntity(registrationDto);
 
         // Encoder le mot de passe
         user.setPassword(passwordEncoder.encode(registrationDto.getPassword()));
 
         // Sauvegarder l'utilisateur
         User savedUser = userRepository.save(user);
+        donorMatchingService.updateDonor(savedUser);
 
         // Retourner le DTO de réponse
-        return modelMapper.map(savedUser, UserResponseDto.class);
+        return userMapper.toResponseDto(savedUser);
     }
 
     public UserResponseDto getUserById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("Utilisateur non trouvé avec l'ID : " + id));
-        return modelMapper.map(user, UserResponseDto.class);
+        return userMapper.toResponseDto(user);
     }
 
     public UserResponseDto getUserByEmail(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UserNotFoundException("Utilisateur non trouvé avec l'email : " + email));
-        return modelMapper.map(user, UserResponseDto.class);
+        return userMapper.toResponseDto(user);
     }
 
     public List<UserResponseDto> getUsersByBloodType(BloodType bloodType) {
-        List<User> users = userRepository.findByBloodType(bloodType);
+        List<UserSummary> users = userRepository.findSummariesByBloodType(bloodType);
         return users.stream()
-                .map(user -> modelMapper.map(user, UserResponseDto.class))
+                .map(user -> userMapper.toResponseDto(user))
                 .collect(Collectors.toList());
     }
 
     public List<UserResponseDto> getUsersByBloodTypeAndCity(BloodType bloodType, String city) {
-        List<User> users = userRepository.findByBloodTypeAndCity(bloodType, city);
+        List<UserSummary> users = userRepository.findSummariesByBloodTypeAndCity(bloodType, city);
         return users.stream()
-                .map(user -> modelMapper.map(user, UserResponseDto.class))
+                .map(user -> userMapper.toResponseDto(user))
                 .collect(Collectors.toList());
     }
 
@@ -84,6 +110,14 @@ public class UserService {
             throw new EmailAlreadyExistsException("Un utilisateur avec cet email existe déjà");
         }
 
+        // Les tokens existants portent l'ancien email
+        if (!user.getEmail().equals(updateDto.getEmail())) {
+            tokenRevocationService.revokeTokens(id);
+        }
+        userDetailsService.evict(user.getEmail());
+        boolean renamed = !user.getFirstName().equals(updateDto.getFirstName())
+                || !user.getLastName().equals(updateDto.getLastName());
+
         // Mettre à jour les champs (sans le mot de passe)
         user.setFirstName(updateDto.getFirstName());
         user.setLastName(updateDto.getLastName());
@@ -94,21 +128,40 @@ public class UserService {
         user.setAddress(updateDto.getAddress());
         user.setCity(updateDto.getCity());
         user.setPostalCode(updateDto.getPostalCode());
+        user.setLatitude(updateDto.getLatitude());
+        user.setLongitude(updateDto.getLongitude());
 
         User updatedUser = userRepository.save(user);
-        return modelMapper.map(updatedUser, UserResponseDto.class);
+        donorMatchingService.updateDonor(updatedUser);
+        if (renamed && updatedUser.getRole() == UserRole.HOSPITAL) {
+            bloodRequestService.onHospitalUserUpdated(id);
+        }
+        return userMapper.toResponseDto(updatedUser);
     }
 
     public void deleteUser(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("Utilisateur non trouvé avec l'ID : " + id));
+        // Demandes et réponses sont supprimées par cascade : index, compteurs et abonnés sont mis à jour avant
+        bloodRequestService.onHospitalUserDeleted(id);
+        bloodRequestResponseService.onDonorUserDeleted(id);
         userRepository.delete(user);
+        donorMatchingService.removeDonor(id);
+        tokenRevocationService.revokeTokens(id);
+        userDetailsService.evict(user.getEmail());
     }
 
     public List<UserResponseDto> getAllUsers() {
-        List<User> users = userRepository.findAll();
+        List<UserSummary> users = userRepository.findAllSummaries();
         return users.stream()
-                .map(user -> modelMapper.map(user, UserResponseDto.class))
+                .map(user -> userMapper.toResponseDto(user))
                 .collect(Collectors.toList());
     }
+
+    public PageResponseDto<UserResponseDto> getAllUsersPage(int page, int size, String sort, boolean withTotal) {
+        Pageable pageable = PageRequests.of(page, size, sort, SORTABLE_PROPERTIES);
+        return withTotal
+                ? PageRequests.toResponse(userRepository.findSummaryPage(pageable), userMapper::toResponseDto)
+                : PageRequests.toResponse(userRepository.findSummarySlice(pageable), userMapper::toResponseDto);
+    }
 }
\ No newline at end of file
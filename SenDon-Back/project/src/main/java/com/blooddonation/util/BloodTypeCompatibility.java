@@ -0,0 +1,86 @@
+package com.blooddonation.util;
+
+import com.blooddonation.enums.BloodType;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Matrice de compatibilité ABO/Rh (globules rouges), calculée une seule fois.
+ * Un donneur est compatible si le receveur possède tous les antigènes du donneur.
+ */
+public final class BloodTypeCompatibility {
+    
+    private static final int ANTIGEN_A = 1;
+    private static final int ANTIGEN_B = 1 << 1;
+    private static final int ANTIGEN_RH = 1 << 2;
+    
+    // Pour chaque groupe receveur, masque des groupes donneurs compatibles (bit = ordinal)
+    private static final int[] DONOR_MASKS = new int[BloodType.values().length];
+    
+    private static final Map<BloodType, Set<BloodType>> DONORS_BY_RECIPIENT = new EnumMap<>(BloodType.class);
+    
+    private static final Map<BloodType, Set<BloodType>> RECIPIENTS_BY_DONOR = new EnumMap<>(BloodType.class);
+    
+    static {
+        for (BloodType recipient : BloodType.values()) {
+            EnumSet<BloodType> donors = EnumSet.noneOf(BloodType.class);
+            for (BloodType donor : BloodType.values()) {
+                if ((antigens(donor) & ~antigens(recipient)) == 0) {
+                    DONOR_MASKS[recipient.ordinal()] |= 1 << donor.ordinal();
+                    donors.add(donor);
+                }
+            }
+            DONORS_BY_RECIPIENT.put(recipient, Collections.unmodifiableSet(donors));
+        }
+        for (BloodType donor : BloodType.values()) {
+            EnumSet<BloodType> recipients = EnumSet.noneOf(BloodType.class);
+            for (BloodType recipient : BloodType.values()) {
+                if (canDonate(donor, recipient)) {
+                    recipients.add(recipient);
+                }
+            }
+            RECIPIENTS_BY_DONOR.put(donor, Collections.unmodifiableSet(recipients));
+        }
+    }
+    
+    private BloodTypeCompatibility() {}
+    
+    public static boolean canDonate(BloodType donorType, BloodType recipientType) {
+        return (DONOR_MASKS[recipientType.ordinal()] & (1 << donorType.ordinal())) != 0;
+    }
+    
+    // Groupes pouvant donner au groupe receveur
+    public static Set<BloodType> compatibleDonors(BloodType recipientType) {
+        return DONORS_BY_RECIPIENT.get(recipientType);
+    }
+    
+    // Groupes des demandes auxquelles le donneur peut répondre
+    public static Set<BloodType> compatibleRecipients(BloodType donorType) {
+        return RECIPIENTS_BY_DONOR.get(donorType);
+    }
+    
+    private static int antigens(BloodType bloodType) {
+        switch (bloodType) {
+            case A_POSITIVE:
+                return ANTIGEN_A | ANTIGEN_RH;
+            case A_NEGATIVE:
+                return ANTIGEN_A;
+            case B_POSITIVE:
+                return ANTIGEN_B | ANTIGEN_RH;
+            case B_NEGATIVE:
+                return ANTIGEN_B;
+            case AB_POSITIVE:
+                return ANTIGEN_A | ANTIGEN_B | ANTIGEN_RH;
+            case AB_NEGATIVE:
+                return ANTIGEN_A | ANTIGEN_B;
+            case O_POSITIVE:
+                return ANTIGEN_RH;
+            default:
+                return 0;
+        }
+    }
+}
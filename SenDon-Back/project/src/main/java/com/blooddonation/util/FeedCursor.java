@@ -0,0 +1,63 @@
+package com.blooddonation.util;
+
+import com.blooddonation.dto.BloodRequestResponseDto;
+import com.blooddonation.enums.UrgencyLevel;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * Position dans le flux des demandes actives, trié par urgency_level DESC, created_at ASC puis id.
+ * urgency_level est une colonne ENUM déclarée dans l'ordre de UrgencyLevel : la base trie et compare
+ * sur le rang (NORMAL = 1, URGENT = 2, CRITICAL = 3), pas sur le texte.
+ * Transmise au client sous forme opaque (Base64).
+ */
+public record FeedCursor(UrgencyLevel urgencyLevel, LocalDateTime createdAt, long id) {
+    
+    // Ordre du flux appliqué côté Java, identique à celui des requêtes SQL paginées
+    public static final Comparator<BloodRequestResponseDto> ORDER = Comparator
+            .comparing(BloodRequestResponseDto::getUrgencyLevel, Comparator.reverseOrder())
+            .thenComparing(BloodRequestResponseDto::getCreatedAt)
+            .thenComparing(BloodRequestResponseDto::getId);
+    
+    private static final String SEPARATOR = "|";
+    
+    public static FeedCursor of(BloodRequestResponseDto dto) {
+        return new FeedCursor(dto.getUrgencyLevel(), dto.getCreatedAt(), dto.getId());
+    }
+    
+    public static FeedCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\|");
+            return new FeedCursor(UrgencyLevel.valueOf(parts[0]), LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+    
+    public String encode() {
+        String raw = urgencyLevel.name() + SEPARATOR + createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // Rang de l'urgence dans la colonne ENUM, à comparer avec urgency_level dans les requêtes SQL
+    public int urgencyRank() {
+        return urgencyLevel.ordinal() + 1;
+    }
+    
+    // Vrai si la demande se trouve après le curseur dans l'ordre du flux
+    public boolean isBefore(BloodRequestResponseDto dto) {
+        int byUrgency = urgencyLevel.compareTo(dto.getUrgencyLevel());
+        if (byUrgency != 0) {
+            return byUrgency > 0;
+        }
+        int byCreation = createdAt.compareTo(dto.getCreatedAt());
+        if (byCreation != 0) {
+            return byCreation < 0;
+        }
+        return id < dto.getId();
+    }
+}
@@ -0,0 +1,100 @@
+package com.blooddonation.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Calculs géographiques partagés : distance entre deux points et grille de cellules
+ * de 1° x 1° utilisée pour indexer les demandes de sang.
+ */
+public final class GeoUtils {
+    
+    public static final double EARTH_RADIUS_KM = 6371;
+    
+    // Rayon maximal d'une demande (cf. contrainte @Max sur searchRadiusKm)
+    public static final int MAX_SEARCH_RADIUS_KM = 500;
+    
+    private static final int CELL_COLUMNS = 360;
+    
+    private GeoUtils() {}
+    
+    /**
+     * Identifiant de la cellule contenant le point. Doit rester identique à l'expression SQL
+     * utilisée pour le rattrapage de la colonne geo_cell.
+     */
+    public static int cellOf(double latitude, double longitude) {
+        int row = (int) Math.floor(latitude + 90);
+        int column = Math.floorMod((int) Math.floor(longitude + 180), CELL_COLUMNS);
+        return row * CELL_COLUMNS + column;
+    }
+    
+    /**
+     * Cellules intersectant le carré englobant le cercle de rayon donné autour du point.
+     * Retourne null à proximité des pôles, où la grille n'apporte plus de filtrage utile.
+     */
+    public static List<Integer> cellsWithin(double latitude, double longitude, double radiusKm) {
+        double latDelta = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        double minLat = latitude - latDelta;
+        double maxLat = latitude + latDelta;
+        if (minLat <= -90 || maxLat >= 90) {
+            return null;
+        }
+        
+        // On prend la latitude la plus éloignée de l'équateur pour rester conservateur
+        double cosLat = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double lonDelta = latDelta / cosLat;
+        if (lonDelta >= 180) {
+            return null;
+        }
+        
+        int minRow = (int) Math.floor(minLat + 90);
+        int maxRow = (int) Math.floor(maxLat + 90);
+        int minColumn = (int) Math.floor(longitude - lonDelta + 180);
+        int maxColumn = (int) Math.floor(longitude + lonDelta + 180);
+        
+        List<Integer> cells = new ArrayList<>((maxRow - minRow + 1) * (maxColumn - minColumn + 1));
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                cells.add(row * CELL_COLUMNS + Math.floorMod(column, CELL_COLUMNS));
+            }
+        }
+        return cells;
+    }
+    
+    /**
+     * Rectangle latitude/longitude englobant le cercle de rayon donné autour du point.
+     * Retourne null près des pôles ou si le rectangle traverse l'antiméridien : un seul
+     * intervalle de longitude ne suffit plus à le décrire.
+     */
+    public static BoundingBox boundingBox(double latitude, double longitude, double radiusKm) {
+        double latDelta = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        double minLat = latitude - latDelta;
+        double maxLat = latitude + latDelta;
+        if (minLat <= -90 || maxLat >= 90) {
+            return null;
+        }
+        
+        double cosLat = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double lonDelta = latDelta / cosLat;
+        double minLon = longitude - lonDelta;
+        double maxLon = longitude + lonDelta;
+        if (minLon < -180 || maxLon > 180) {
+            return null;
+        }
+        return new BoundingBox(minLat, maxLat, minLon, maxLon);
+    }
+    
+    /**
+     * Distance en km entre deux points, avec la même formule que la requête SQL
+     * (loi des cosinus sphérique) pour que les deux chemins donnent les mêmes résultats.
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double cos = Math.cos(phi1) * Math.cos(phi2) * Math.cos(Math.toRadians(lon2) - Math.toRadians(lon1))
+                + Math.sin(phi1) * Math.sin(phi2);
+        return EARTH_RADIUS_KM * Math.acos(Math.min(1, Math.max(-1, cos)));
+    }
+    
+    public record BoundingBox(double minLatitude, double maxLatitude, double minLongitude, double maxLongitude) {}
+}
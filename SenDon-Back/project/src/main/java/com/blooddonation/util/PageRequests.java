@@ -0,0 +1,58 @@
+package com.blooddonation.util;
+
+import com.blooddonation.dto.PageResponseDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Pagination des listes d'administration : taille de page bornée côté serveur,
+ * tri limité à une liste de propriétés et complété par l'id pour un ordre stable d'une page à l'autre.
+ */
+public final class PageRequests {
+    
+    public static final int MAX_PAGE_SIZE = 100;
+    
+    private static final String ID = "id";
+    
+    private PageRequests() {}
+    
+    // sort au format "propriete" ou "propriete,asc|desc"
+    public static Pageable of(int page, int size, String sort, Set<String> sortableProperties) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Numéro de page invalide : " + page);
+        }
+        
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!sortableProperties.contains(property)) {
+            throw new IllegalArgumentException("Tri non autorisé : " + property + " (valeurs possibles : " + sortableProperties + ")");
+        }
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromOptionalString(parts[1].trim()).orElseThrow(
+                        () -> new IllegalArgumentException("Sens de tri invalide : " + parts[1]))
+                : Sort.Direction.ASC;
+        
+        Sort order = Sort.by(direction, property);
+        if (!ID.equals(property)) {
+            order = order.and(Sort.by(Sort.Direction.ASC, ID));
+        }
+        return PageRequest.of(page, Math.max(1, Math.min(size, MAX_PAGE_SIZE)), order);
+    }
+    
+    // Le total n'est renseigné que pour une Page, une Slice évite la requête COUNT
+    public static <S, T> PageResponseDto<T> toResponse(Slice<S> slice, Function<S, T> mapper) {
+        PageResponseDto<T> response = new PageResponseDto<>(slice.map(mapper).getContent(),
+                slice.getNumber(), slice.getSize(), slice.hasNext());
+        if (slice instanceof Page<S> page) {
+            response.setTotalElements(page.getTotalElements());
+            response.setTotalPages(page.getTotalPages());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,157 @@
+package com.blooddonation.repository;
+
+import com.blooddonation.entity.BloodRequest;
+import com.blooddonation.entity.User;
+import com.blooddonation.enums.BloodType;
+import com.blooddonation.enums.UrgencyLevel;
+import com.blooddonation.enums.UserRole;
+import com.blooddonation.util.FeedCursor;
+import com.blooddonation.util.GeoUtils;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloodRequestRepositoryTest extends MariaDbRepositoryTest {
+    
+    private static final double DAKAR_LATITUDE = 14.7167;
+    private static final double DAKAR_LONGITUDE = -17.4677;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private BloodRequestRepository bloodRequestRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Test
+    void boundingBoxQueryUsesCompositeIndex() {
+        persistRequests(2000, 40);
+        
+        GeoUtils.BoundingBox box = GeoUtils.boundingBox(DAKAR_LATITUDE, DAKAR_LONGITUDE, GeoUtils.MAX_SEARCH_RADIUS_KM);
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("userLat", DAKAR_LATITUDE)
+                .addValue("userLon", DAKAR_LONGITUDE)
+                .addValue("bloodTypes", List.of(BloodType.O_POSITIVE.name()))
+                .addValue("minLat", box.minLatitude())
+                .addValue("maxLat", box.maxLatitude())
+                .addValue("minLon", box.minLongitude())
+                .addValue("maxLon", box.maxLongitude())
+                .addValue("afterUrgencyRank", null)
+                .addValue("afterCreatedAt", null)
+                .addValue("afterId", null)
+                .addValue("limit", 21);
+        
+        // Colonnes lues par leur nom : leur position varie selon la version et le format du EXPLAIN
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList(
+                "EXPLAIN " + BloodRequestRepository.NEARBY_IN_BOUNDING_BOX_QUERY, parameters);
+        
+        assertThat(plan).hasSize(1);
+        assertThat(plan.get(0).get("key")).isEqualTo("idx_blood_requests_geo_box");
+        assertThat(plan.get(0).get("type")).isEqualTo("range");
+    }
+    
+    @Test
+    void nearbyPagesFollowTheFeedFromTheCursor() {
+        persistRequests(2000, 40);
+        List<String> bloodTypes = List.of(BloodType.O_POSITIVE.name(), BloodType.O_NEGATIVE.name(), BloodType.A_POSITIVE.name());
+        GeoUtils.BoundingBox box = GeoUtils.boundingBox(DAKAR_LATITUDE, DAKAR_LONGITUDE, GeoUtils.MAX_SEARCH_RADIUS_KM);
+        
+        List<Long> expected = bloodRequestRepository.findNearbyActiveRequests(DAKAR_LATITUDE, DAKAR_LONGITUDE, bloodTypes,
+                null, null, null, Integer.MAX_VALUE).stream().map(BloodRequest::getId).toList();
+        
+        List<Long> paged = new ArrayList<>();
+        FeedCursor after = null;
+        List<BloodRequest> page;
+        do {
+            page = bloodRequestRepository.findNearbyActiveRequestsInBoundingBox(DAKAR_LATITUDE, DAKAR_LONGITUDE, bloodTypes,
+                    box.minLatitude(), box.maxLatitude(), box.minLongitude(), box.maxLongitude(),
+                    after != null ? after.urgencyRank() : null,
+                    after != null ? after.createdAt() : null,
+                    after != null ? after.id() : null, 3);
+            page.forEach(request -> paged.add(request.getId()));
+            if (!page.isEmpty()) {
+                BloodRequest last = page.get(page.size() - 1);
+                after = new FeedCursor(last.getUrgencyLevel(), last.getCreatedAt(), last.getId());
+            }
+        } while (page.size() == 3);
+        
+        assertThat(expected).hasSizeGreaterThan(3);
+        assertThat(paged).containsExactlyElementsOf(expected);
+    }
+    
+    // Hors de la transaction du test : l'utilisateur est mis en cache en le relisant après le commit de sa création
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void nativeUpdatesKeepCachedUsers() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        Long hospitalId = transaction.execute(status -> persistRequests(0, 3).getId());
+        try {
+            transaction.executeWithoutResult(status -> entityManager.find(User.class, hospitalId));
+            assertThat(cache.contains(User.class, hospitalId)).isTrue();
+            
+            transaction.executeWithoutResult(status -> {
+                bloodRequestRepository.backfillGeoCells();
+                bloodRequestRepository.reconcileResponseCounters();
+            });
+            
+            assertThat(cache.contains(User.class, hospitalId)).isTrue();
+        } finally {
+            transaction.executeWithoutResult(status -> {
+                bloodRequestRepository.deleteAll(bloodRequestRepository.findByHospitalUserId(hospitalId));
+                entityManager.remove(entityManager.find(User.class, hospitalId));
+            });
+        }
+    }
+    
+    // Demandes réparties sur tout le globe, que le rectangle autour de Dakar écarte presque toutes,
+    // et quelques demandes autour de Dakar, dans leur rayon de recherche
+    private User persistRequests(int aroundTheWorld, int aroundDakar) {
+        User hospital = new User("Hôpital", "Principal", "hopital@example.com", "$2a$10$test", "+221000000000",
+                LocalDate.of(1980, 1, 1), BloodType.O_POSITIVE);
+        hospital.setRole(UserRole.HOSPITAL);
+        entityManager.persist(hospital);
+        
+        Random random = new Random(42);
+        for (int i = 0; i < aroundTheWorld; i++) {
+            persistRequest(random, hospital, -60 + random.nextDouble() * 120, -180 + random.nextDouble() * 360);
+        }
+        for (int i = 0; i < aroundDakar; i++) {
+            persistRequest(random, hospital, DAKAR_LATITUDE - 0.2 + random.nextDouble() * 0.4,
+                    DAKAR_LONGITUDE - 0.2 + random.nextDouble() * 0.4);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return hospital;
+    }
+    
+    private void persistRequest(Random random, User hospital, double latitude, double longitude) {
+        BloodType[] bloodTypes = BloodType.values();
+        UrgencyLevel[] urgencyLevels = UrgencyLevel.values();
+        entityManager.persist(new BloodRequest(bloodTypes[random.nextInt(bloodTypes.length)], BigDecimal.valueOf(450),
+                urgencyLevels[random.nextInt(urgencyLevels.length)], "Demande synthétique", latitude, longitude, 50,
+                "Avenue Cheikh Anta Diop", "Hôpital Principal", "+221000000000", LocalDateTime.now().plusDays(7), hospital));
+    }
+}
@@ -0,0 +1,108 @@
+package com.blooddonation.repository;
+
+import com.blooddonation.entity.BloodRequest;
+import com.blooddonation.entity.BloodRequestResponse;
+import com.blooddonation.entity.User;
+import com.blooddonation.enums.BloodType;
+import com.blooddonation.enums.UrgencyLevel;
+import com.blooddonation.enums.UserRole;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BloodRequestResponseRepositoryTest extends MariaDbRepositoryTest {
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private BloodRequestResponseRepository responseRepository;
+    
+    private Statistics statistics;
+    
+    private int sequence;
+    
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    @Test
+    void responsesOfARequestAreLoadedInOneStatement() {
+        long fewRows = statementsToRead(2, (request, donors) -> responseRepository.findByBloodRequestId(request.getId()));
+        long manyRows = statementsToRead(40, (request, donors) -> responseRepository.findByBloodRequestId(request.getId()));
+        
+        assertThat(fewRows).isEqualTo(1);
+        assertThat(manyRows).isEqualTo(fewRows);
+    }
+    
+    @Test
+    void responsesOfADonorAreLoadedInOneStatement() {
+        long fewRows = statementsToRead(2, (request, donors) -> responseRepository.findByDonorUserId(donors.get(0).getId()));
+        long manyRows = statementsToRead(40, (request, donors) -> responseRepository.findByDonorUserId(donors.get(0).getId()));
+        
+        assertThat(fewRows).isEqualTo(1);
+        assertThat(manyRows).isEqualTo(fewRows);
+    }
+    
+    // Crée `rows` réponses de donneurs distincts à une même demande, et `rows` réponses d'un même donneur
+    // à des demandes distinctes, puis compte les requêtes SQL pour les lire et parcourir leurs associations
+    // comme le fait le mapper : sans jointure, ce nombre grandirait avec `rows`
+    private long statementsToRead(int rows, BiFunction<BloodRequest, List<User>, List<BloodRequestResponse>> loader) {
+        User hospital = persistUser(UserRole.HOSPITAL);
+        BloodRequest sharedRequest = persistRequest(hospital);
+        User sharedDonor = persistUser(UserRole.USER);
+        List<User> donors = new ArrayList<>(List.of(sharedDonor));
+        entityManager.persist(new BloodRequestResponse(sharedRequest, sharedDonor, "Disponible"));
+        for (int i = 1; i < rows; i++) {
+            User donor = persistUser(UserRole.USER);
+            donors.add(donor);
+            entityManager.persist(new BloodRequestResponse(sharedRequest, donor, "Disponible"));
+            entityManager.persist(new BloodRequestResponse(persistRequest(hospital), sharedDonor, "Disponible"));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        statistics.clear();
+        
+        List<BloodRequestResponse> responses = loader.apply(sharedRequest, donors);
+        responses.forEach(response -> {
+            response.getBloodRequest().getDescription();
+            response.getDonorUser().getEmail();
+        });
+        
+        assertThat(responses).hasSize(rows);
+        return statistics.getPrepareStatementCount();
+    }
+    
+    private User persistUser(UserRole role) {
+        int n = sequence++;
+        User user = new User("Prénom" + n, "Nom" + n, "utilisateur" + n + "@example.com", "$2a$10$test",
+                "+22100000" + String.format("%04d", n), LocalDate.of(1990, 1, 1), BloodType.O_POSITIVE);
+        user.setRole(role);
+        entityManager.persist(user);
+        return user;
+    }
+    
+    private BloodRequest persistRequest(User hospital) {
+        BloodRequest request = new BloodRequest(BloodType.O_POSITIVE, BigDecimal.valueOf(450), UrgencyLevel.NORMAL,
+                "Demande synthétique", 14.7167, -17.4677, 50, "Avenue Cheikh Anta Diop", "Hôpital Principal",
+                "+221000000000", LocalDateTime.now().plusDays(7), hospital);
+        entityManager.persist(request);
+        return request;
+    }
+}